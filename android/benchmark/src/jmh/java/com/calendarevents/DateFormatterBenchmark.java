@@ -0,0 +1,68 @@
+package com.calendarevents;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.text.ParseException;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Date conversions done for every serialized instance: start and end dates,
+ * all-day bounds read as wall clock time, and RRULE UNTIL values.
+ */
+@State(Scope.Thread)
+public class DateFormatterBenchmark {
+
+    private static final int SIZE = 1024;
+    private static final long YEAR = 365L * 24 * 60 * 60 * 1000;
+
+    private final long[] millis = new long[SIZE];
+    private final String[] isoDates = new String[SIZE];
+    private final String[] rruleDates = new String[SIZE];
+    private final TimeZone zone = TimeZone.getTimeZone("Europe/Paris");
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        long now = 1600000000000L;
+        for (int i = 0; i < SIZE; i++) {
+            millis[i] = now - YEAR + (long) (random.nextDouble() * 2 * YEAR);
+            isoDates[i] = DateFormatter.formatUTC(millis[i]);
+            rruleDates[i] = DateFormatter.formatRRuleDate(millis[i], DateFormatter.UTC);
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (SIZE - 1);
+        return index;
+    }
+
+    @Benchmark
+    public String formatUTC() {
+        return DateFormatter.formatUTC(millis[next()]);
+    }
+
+    @Benchmark
+    public long parseUTC() throws ParseException {
+        return DateFormatter.parseUTC(isoDates[next()]);
+    }
+
+    @Benchmark
+    public long parseZoned() throws ParseException {
+        return DateFormatter.parse(isoDates[next()], zone);
+    }
+
+    @Benchmark
+    public long fromWallClock() {
+        return DateFormatter.fromWallClock(millis[next()], zone);
+    }
+
+    @Benchmark
+    public long parseRRuleDate() throws ParseException {
+        return DateFormatter.parseRRuleDate(rruleDates[next()], DateFormatter.UTC);
+    }
+}
@@ -0,0 +1,48 @@
+package com.calendarevents;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Busy interval merging over a month of meetings, from a light calendar to
+ * several busy ones with many overlaps.
+ */
+@State(Scope.Thread)
+public class FreeBusyBenchmark {
+
+    private static final long MINUTE = 60 * 1000;
+    private static final long START = 1600000000000L;
+    private static final long END = START + 30L * 24 * 60 * MINUTE;
+
+    @Param({"50", "1000", "10000"})
+    public int count;
+
+    private long[] starts;
+    private long[] ends;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        starts = new long[count];
+        ends = new long[count];
+        for (int i = 0; i < count; i++) {
+            starts[i] = START + (long) (random.nextDouble() * (END - START));
+            ends[i] = starts[i] + (15 + random.nextInt(8) * 15) * MINUTE;
+        }
+    }
+
+    @Benchmark
+    public long[] exact() {
+        return FreeBusy.merge(starts, ends, count, START, END, 0);
+    }
+
+    @Benchmark
+    public long[] quarterHours() {
+        return FreeBusy.merge(starts, ends, count, START, END, 15 * MINUTE);
+    }
+}
@@ -0,0 +1,46 @@
+package com.calendarevents;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.TimeZone;
+
+/**
+ * RRULE parsing, both uncached and through the cache hit by every instance of
+ * a recurring series.
+ */
+@State(Scope.Thread)
+public class RecurrenceRuleBenchmark {
+
+    @Param({
+            "FREQ=DAILY;COUNT=10",
+            "FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE,FR;UNTIL=20251231T235959Z",
+            "FREQ=MONTHLY;BYMONTHDAY=15;WKST=SU;UNTIL=20301231T000000Z;INTERVAL=1"
+    })
+    public String rrule;
+
+    private final TimeZone zone = TimeZone.getTimeZone("America/New_York");
+
+    @Setup
+    public void setUp() {
+        RecurrenceRule.get(rrule);
+    }
+
+    @Benchmark
+    public RecurrenceRule parse() {
+        return RecurrenceRule.parse(rrule);
+    }
+
+    @Benchmark
+    public RecurrenceRule cached() {
+        return RecurrenceRule.get(rrule);
+    }
+
+    @Benchmark
+    public String endDate() {
+        return RecurrenceRule.get(rrule).getEndDate(zone);
+    }
+}
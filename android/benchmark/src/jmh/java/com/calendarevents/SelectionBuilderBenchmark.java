@@ -0,0 +1,45 @@
+package com.calendarevents;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Selections built for calendar filters and batched lookups by ID.
+ */
+@State(Scope.Thread)
+public class SelectionBuilderBenchmark {
+
+    @Param({"1", "20", "500"})
+    public int inCount;
+
+    private final String[] clauseArgs = new String[]{"1600000000000", "1700000000000"};
+    private String[] inArgs;
+    private SelectionBuilder builder;
+
+    @Setup
+    public void setUp() {
+        inArgs = new String[inCount];
+        for (int i = 0; i < inCount; i++) {
+            inArgs[i] = String.valueOf(1000 + i);
+        }
+        builder = new SelectionBuilder("begin < ? AND end >= ?", "calendar_id");
+    }
+
+    @Benchmark
+    public String build() {
+        return builder.build(inCount);
+    }
+
+    @Benchmark
+    public String buildUncached() {
+        return new SelectionBuilder("begin < ? AND end >= ?", "calendar_id").build(inCount);
+    }
+
+    @Benchmark
+    public String[] args() {
+        return SelectionBuilder.args(clauseArgs, inArgs);
+    }
+}
@@ -0,0 +1,56 @@
+package com.calendarevents;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * String deduplication of compact results: recurring series repeating their
+ * title, location and long description on every instance, and heavy attendee
+ * lists shared by the meetings of a team.
+ */
+@State(Scope.Thread)
+public class StringTableBenchmark {
+
+    @Param({"100", "5000"})
+    public int instances;
+
+    private String[] values;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            description.append("Agenda item ").append(i).append(": review the action points and blockers. ");
+        }
+
+        int series = Math.max(1, instances / 20);
+        // title, location, description and 25 attendee emails per instance
+        values = new String[instances * 28];
+        int position = 0;
+        for (int i = 0; i < instances; i++) {
+            int seriesIndex = random.nextInt(series);
+            values[position++] = "Weekly sync " + seriesIndex;
+            values[position++] = "Room " + (seriesIndex % 12);
+            values[position++] = description.toString() + seriesIndex;
+            for (int j = 0; j < 25; j++) {
+                values[position++] = "attendee" + ((seriesIndex * 7 + j) % 200) + "@example.com";
+            }
+        }
+    }
+
+    @Benchmark
+    public int intern() {
+        StringTable table = new StringTable();
+        int sum = 0;
+        for (String value : values) {
+            sum += table.indexOf(value);
+        }
+        return sum + table.strings().size();
+    }
+}
@@ -0,0 +1,121 @@
+package com.calendarevents;
+
+import android.content.ContentResolver;
+import android.database.ContentObserver;
+import android.provider.CalendarContract;
+import android.util.Log;
+
+import com.facebook.react.bridge.WritableNativeMap;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory copy of the device calendars keyed by calendar ID.
+ *
+ * Calendar rows almost never change, so they are loaded once and kept until
+ * the provider notifies a change on {@link CalendarContract.Calendars#CONTENT_URI}.
+ * The cached maps are templates: callers always receive copies, since a native
+ * map can only be handed to the bridge once.
+ */
+class CalendarCache {
+
+    interface Loader {
+        LinkedHashMap<String, WritableNativeMap> loadCalendars();
+    }
+
+    private static final String TAG = "RNCalendarEvents";
+
+    private final ContentResolver resolver;
+    private final Loader loader;
+    private final ContentObserver observer;
+
+    private Map<String, WritableNativeMap> calendars;
+    private int version;
+    private boolean observing;
+
+    CalendarCache(ContentResolver resolver, Loader loader) {
+        this.resolver = resolver;
+        this.loader = loader;
+        this.observer = new ContentObserver(null) {
+            @Override
+            public void onChange(boolean selfChange) {
+                invalidate();
+            }
+        };
+    }
+
+    /**
+     * Returns a copy of the cached calendar, or null when it is unknown.
+     */
+    WritableNativeMap get(String calendarID) {
+        WritableNativeMap calendar = getAll().get(calendarID);
+        if (calendar == null) {
+            return null;
+        }
+
+        WritableNativeMap copy = new WritableNativeMap();
+        copy.merge(calendar);
+        return copy;
+    }
+
+    /**
+     * Returns the cached templates in provider order. They must be copied
+     * before being pushed into another map or resolved to JS.
+     */
+    Map<String, WritableNativeMap> getAll() {
+        int loadVersion;
+        synchronized (this) {
+            if (calendars != null) {
+                return calendars;
+            }
+            loadVersion = version;
+            observe();
+        }
+
+        Map<String, WritableNativeMap> loaded = Collections.unmodifiableMap(loader.loadCalendars());
+
+        synchronized (this) {
+            // a change notified while loading means the rows may already be outdated,
+            // and without an observer there is nothing telling us when to drop them
+            if (loadVersion == version && observing) {
+                calendars = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the cached templates without loading them, or null when they aren't cached.
+     */
+    synchronized Map<String, WritableNativeMap> peekAll() {
+        return calendars;
+    }
+
+    synchronized void invalidate() {
+        calendars = null;
+        version++;
+    }
+
+    synchronized void release() {
+        if (observing) {
+            resolver.unregisterContentObserver(observer);
+            observing = false;
+        }
+        calendars = null;
+    }
+
+    private void observe() {
+        if (observing) {
+            return;
+        }
+
+        try {
+            resolver.registerContentObserver(CalendarContract.Calendars.CONTENT_URI, true, observer);
+            observing = true;
+        } catch (SecurityException e) {
+            Log.w(TAG, "Unable to observe calendar changes", e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.calendarevents;
+
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.os.Process;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Module-owned executor backing every asynchronous {@code @ReactMethod}.
+ *
+ * Reads run on a bounded pool sized by the configured parallelism, writes run
+ * one at a time on their own lane so that bursts of inserts and deletes never
+ * contend with each other for the CalendarProvider's database lock.
+ * Speculative prefetches get a third, lowest priority lane so they never delay
+ * a query somebody is waiting for.
+ */
+class CalendarExecutor {
+
+    interface Prefetch {
+        /**
+         * Runs the prefetch, which should give up by throwing {@link OperationCanceledException}
+         * once the signal is cancelled.
+         */
+        void run(CancellationSignal signal);
+    }
+
+    static final int DEFAULT_READ_PARALLELISM = 2;
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final ThreadPoolExecutor readExecutor;
+    private final ThreadPoolExecutor writeExecutor;
+    private final ThreadPoolExecutor prefetchExecutor;
+    /** Signals of the prefetches queued or running. */
+    private final Set<CancellationSignal> prefetchSignals =
+            Collections.newSetFromMap(new ConcurrentHashMap<CancellationSignal, Boolean>());
+
+    CalendarExecutor(int readParallelism) {
+        if (readParallelism < 1) {
+            readParallelism = 1;
+        }
+
+        readExecutor = createExecutor("read", readParallelism, Process.THREAD_PRIORITY_BACKGROUND);
+        writeExecutor = createExecutor("write", 1, Process.THREAD_PRIORITY_BACKGROUND);
+        prefetchExecutor = createExecutor("prefetch", 1, Process.THREAD_PRIORITY_LOWEST);
+    }
+
+    void executeRead(Runnable task) {
+        readExecutor.execute(task);
+    }
+
+    void executeWrite(Runnable task) {
+        writeExecutor.execute(task);
+    }
+
+    void executePrefetch(final Prefetch task) {
+        final CancellationSignal signal = new CancellationSignal();
+        prefetchSignals.add(signal);
+
+        try {
+            prefetchExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (!signal.isCanceled()) {
+                            task.run(signal);
+                        }
+                    } catch (OperationCanceledException ignored) {
+                    } finally {
+                        prefetchSignals.remove(signal);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            prefetchSignals.remove(signal);
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the prefetches that haven't started yet and cancels the provider queries of
+     * the running ones, so the prefetch lane is free for the foreground work.
+     */
+    void cancelPrefetches() {
+        prefetchExecutor.getQueue().clear();
+        for (Iterator<CancellationSignal> signals = prefetchSignals.iterator(); signals.hasNext(); ) {
+            signals.next().cancel();
+            signals.remove();
+        }
+    }
+
+    /**
+     * Pending reads are dropped since nobody is left to receive them, queued
+     * writes are still allowed to finish so no user data is lost.
+     */
+    void shutdown() {
+        readExecutor.shutdownNow();
+        prefetchExecutor.shutdownNow();
+        writeExecutor.shutdown();
+    }
+
+    private static ThreadPoolExecutor createExecutor(final String lane, int threads, final int priority) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger(1);
+
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        return new Thread(new Runnable() {
+                            @Override
+                            public void run() {
+                                Process.setThreadPriority(priority);
+                                runnable.run();
+                            }
+                        }, "RNCalendarEvents-" + lane + "-" + count.getAndIncrement());
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
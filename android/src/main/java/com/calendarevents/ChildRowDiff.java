@@ -0,0 +1,86 @@
+package com.calendarevents;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentUris;
+import android.content.ContentValues;
+import android.net.Uri;
+import android.provider.BaseColumns;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Computes the operations turning the existing child rows of an event, e.g. its
+ * reminders or attendees, into the wanted ones.
+ *
+ * Rows are matched on their key columns. A matched row is only updated when one
+ * of the wanted values differs, unmatched existing rows are deleted and unmatched
+ * wanted rows are inserted, so saving an unchanged event writes nothing and sync
+ * adapters have nothing to upload.
+ */
+final class ChildRowDiff {
+
+    private ChildRowDiff() {
+    }
+
+    /**
+     * @param existing rows read from the provider, holding their {@code _ID} and every column of {@code wanted}
+     * @param wanted   rows to end up with, including their event ID
+     */
+    static void appendOperations(ArrayList<ContentProviderOperation> operations, Uri uri, String[] keyColumns,
+                                 List<ContentValues> existing, List<ContentValues> wanted) {
+        HashMap<String, ArrayDeque<ContentValues>> existingByKey = new HashMap<>();
+        for (ContentValues row : existing) {
+            String key = key(row, keyColumns);
+            ArrayDeque<ContentValues> rows = existingByKey.get(key);
+            if (rows == null) {
+                rows = new ArrayDeque<>();
+                existingByKey.put(key, rows);
+            }
+            rows.add(row);
+        }
+
+        for (ContentValues values : wanted) {
+            ArrayDeque<ContentValues> rows = existingByKey.get(key(values, keyColumns));
+            ContentValues row = rows != null ? rows.poll() : null;
+
+            if (row == null) {
+                operations.add(ContentProviderOperation.newInsert(uri).withValues(values).build());
+                continue;
+            }
+
+            ContentValues changes = new ContentValues();
+            for (String column : values.keySet()) {
+                String value = values.getAsString(column);
+                if (value == null ? row.getAsString(column) != null : !value.equals(row.getAsString(column))) {
+                    changes.put(column, value);
+                }
+            }
+
+            if (changes.size() > 0) {
+                operations.add(ContentProviderOperation.newUpdate(rowUri(uri, row)).withValues(changes).build());
+            }
+        }
+
+        for (ArrayDeque<ContentValues> rows : existingByKey.values()) {
+            for (ContentValues row : rows) {
+                operations.add(ContentProviderOperation.newDelete(rowUri(uri, row)).build());
+            }
+        }
+    }
+
+    private static Uri rowUri(Uri uri, ContentValues row) {
+        return ContentUris.withAppendedId(uri, row.getAsLong(BaseColumns._ID));
+    }
+
+    private static String key(ContentValues values, String[] keyColumns) {
+        StringBuilder key = new StringBuilder();
+        for (String column : keyColumns) {
+            // \u0000 can't appear in provider values, so distinct tuples never share a key
+            key.append(values.getAsString(column)).append('\u0000');
+        }
+        return key.toString();
+    }
+}
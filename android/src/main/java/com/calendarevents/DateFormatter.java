@@ -0,0 +1,249 @@
+package com.calendarevents;
+
+import java.text.ParseException;
+import java.util.TimeZone;
+
+/**
+ * Thread-safe formatting and parsing of the two date layouts used by the module,
+ * working directly on epoch millis:
+ *
+ * - ISO dates exchanged with JS, {@code yyyy-MM-dd'T'HH:mm:ss.SSS'Z'}
+ * - RRULE UNTIL values, {@code yyyyMMdd'T'HHmmss'Z'}
+ *
+ * Replaces per-call SimpleDateFormat and Calendar instances, which were one of
+ * the top allocation sites when serializing large event ranges. Parsing is as
+ * lenient as SimpleDateFormat was: field widths may vary, out of range values
+ * roll over and trailing characters are ignored.
+ */
+final class DateFormatter {
+
+    static final TimeZone UTC = TimeZone.getTimeZone("GMT");
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND;
+    private static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+    private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+    private DateFormatter() {
+    }
+
+    static String formatUTC(long millis) {
+        long days = floorDiv(millis, MILLIS_PER_DAY);
+        long millisOfDay = floorMod(millis, MILLIS_PER_DAY);
+        long civil = civilFromDays(days);
+
+        char[] out = new char[24];
+        int pos = appendYear(out, 0, (int) (civil >> 16));
+        out[pos++] = '-';
+        pos = appendPadded(out, pos, (int) ((civil >> 8) & 0xFF), 2);
+        out[pos++] = '-';
+        pos = appendPadded(out, pos, (int) (civil & 0xFF), 2);
+        out[pos++] = 'T';
+        pos = appendPadded(out, pos, (int) (millisOfDay / MILLIS_PER_HOUR), 2);
+        out[pos++] = ':';
+        pos = appendPadded(out, pos, (int) (millisOfDay / MILLIS_PER_MINUTE % 60), 2);
+        out[pos++] = ':';
+        pos = appendPadded(out, pos, (int) (millisOfDay / MILLIS_PER_SECOND % 60), 2);
+        out[pos++] = '.';
+        pos = appendPadded(out, pos, (int) (millisOfDay % MILLIS_PER_SECOND), 3);
+        out[pos++] = 'Z';
+        return new String(out, 0, pos);
+    }
+
+    static long parseUTC(String value) throws ParseException {
+        return parse(value, UTC);
+    }
+
+    /**
+     * Parses an ISO date, reading its fields as wall clock time in the given zone.
+     */
+    static long parse(String value, TimeZone zone) throws ParseException {
+        Parser parser = new Parser(value);
+        int year = parser.number(0);
+        parser.literal('-');
+        int month = parser.number(0);
+        parser.literal('-');
+        int day = parser.number(0);
+        parser.literal('T');
+        int hour = parser.number(0);
+        parser.literal(':');
+        int minute = parser.number(0);
+        parser.literal(':');
+        int second = parser.number(0);
+        parser.literal('.');
+        int millis = parser.number(0);
+        parser.literal('Z');
+
+        return toMillis(year, month, day, hour, minute, second, millis, zone);
+    }
+
+    /**
+     * Formats an RRULE UNTIL value as wall clock time in the given zone.
+     */
+    static String formatRRuleDate(long millis, TimeZone zone) {
+        long local = millis + zone.getOffset(millis);
+        long days = floorDiv(local, MILLIS_PER_DAY);
+        long millisOfDay = floorMod(local, MILLIS_PER_DAY);
+        long civil = civilFromDays(days);
+
+        char[] out = new char[16];
+        int pos = appendYear(out, 0, (int) (civil >> 16));
+        pos = appendPadded(out, pos, (int) ((civil >> 8) & 0xFF), 2);
+        pos = appendPadded(out, pos, (int) (civil & 0xFF), 2);
+        out[pos++] = 'T';
+        pos = appendPadded(out, pos, (int) (millisOfDay / MILLIS_PER_HOUR), 2);
+        pos = appendPadded(out, pos, (int) (millisOfDay / MILLIS_PER_MINUTE % 60), 2);
+        pos = appendPadded(out, pos, (int) (millisOfDay / MILLIS_PER_SECOND % 60), 2);
+        out[pos++] = 'Z';
+        return new String(out, 0, pos);
+    }
+
+    /**
+     * Parses an RRULE UNTIL value, reading its fields as wall clock time in the given zone.
+     */
+    static long parseRRuleDate(String value, TimeZone zone) throws ParseException {
+        Parser parser = new Parser(value);
+        int year = parser.number(4);
+        int month = parser.number(2);
+        int day = parser.number(2);
+        parser.literal('T');
+        int hour = parser.number(2);
+        int minute = parser.number(2);
+        int second = parser.number(2);
+        parser.literal('Z');
+
+        return toMillis(year, month, day, hour, minute, second, 0, zone);
+    }
+
+    private static long toMillis(int year, int month, int day, int hour, int minute, int second, int millis, TimeZone zone) {
+        // out of range months roll over into the following or previous years
+        long y = year + floorDiv((long) month - 1, 12);
+        int m = floorMod(month - 1, 12) + 1;
+
+        long local = (daysFromCivil(y, m) + day - 1) * MILLIS_PER_DAY
+                + hour * MILLIS_PER_HOUR
+                + minute * MILLIS_PER_MINUTE
+                + second * MILLIS_PER_SECOND
+                + millis;
+
+        return fromWallClock(local, zone);
+    }
+
+    /**
+     * Converts wall clock millis, i.e. fields read as if they were UTC, to an instant in the given zone.
+     */
+    static long fromWallClock(long local, TimeZone zone) {
+        if (zone == UTC) {
+            return local;
+        }
+
+        // resolve like java.util.Calendar does: ambiguous and skipped wall clock
+        // times around DST transitions are both read as standard time
+        long standard = local - zone.getRawOffset();
+        int offset = zone.getOffset(standard);
+        long result = local - offset;
+        return zone.getOffset(result) == offset ? result : standard;
+    }
+
+    /**
+     * Days since epoch of the first day of the given month, proleptic Gregorian calendar.
+     */
+    private static long daysFromCivil(long year, int month) {
+        year -= month <= 2 ? 1 : 0;
+        long era = floorDiv(year, 400);
+        long yearOfEra = year - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Returns year, month and day packed as {@code year << 16 | month << 8 | day}.
+     */
+    private static long civilFromDays(long days) {
+        days += 719468;
+        long era = floorDiv(days, 146097);
+        long dayOfEra = days - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (year << 16) | (month << 8) | day;
+    }
+
+    // Math.floorDiv and Math.floorMod are only available from API 24
+    private static long floorDiv(long x, long y) {
+        long q = x / y;
+        return (x % y != 0 && ((x ^ y) < 0)) ? q - 1 : q;
+    }
+
+    private static long floorMod(long x, long y) {
+        return x - floorDiv(x, y) * y;
+    }
+
+    private static int floorMod(int x, int y) {
+        return (int) floorMod((long) x, (long) y);
+    }
+
+    private static int appendYear(char[] out, int pos, int year) {
+        if (year >= 0 && year <= 9999) {
+            return appendPadded(out, pos, year, 4);
+        }
+
+        String digits = Integer.toString(year);
+        digits.getChars(0, digits.length(), out, pos);
+        return pos + digits.length();
+    }
+
+    private static int appendPadded(char[] out, int pos, int value, int width) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+
+    private static final class Parser {
+        private final String value;
+        private int pos;
+
+        Parser(String value) throws ParseException {
+            if (value == null) {
+                throw new ParseException("Unparseable date: null", 0);
+            }
+            this.value = value;
+        }
+
+        /**
+         * Reads exactly {@code width} digits, or as many as available when width is 0.
+         */
+        int number(int width) throws ParseException {
+            int start = pos;
+            int end = width > 0 ? Math.min(value.length(), start + width) : value.length();
+            int result = 0;
+
+            while (pos < end) {
+                char c = value.charAt(pos);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                result = result * 10 + (c - '0');
+                pos++;
+            }
+
+            if (pos == start || (width > 0 && pos - start != width)) {
+                throw new ParseException("Unparseable date: \"" + value + "\"", start);
+            }
+            return result;
+        }
+
+        void literal(char expected) throws ParseException {
+            if (pos >= value.length() || value.charAt(pos) != expected) {
+                throw new ParseException("Unparseable date: \"" + value + "\"", pos);
+            }
+            pos++;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.calendarevents;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Binary archive of provider rows, for exports and imports that never go through JS.
+ *
+ * The header declares the columns of each row type once, then every row is its
+ * type, the ID of the event it belongs to, and one tagged value per declared
+ * column. Rows are copied from the cursors into a direct buffer drained to a
+ * file channel, and imports read them from a memory-mapped file, so neither side
+ * holds more than one row as objects.
+ */
+final class EventArchive {
+
+    static final byte EVENT = 1;
+    static final byte REMINDER = 2;
+    static final byte ATTENDEE = 3;
+
+    private static final int MAGIC = 0x524e4358;
+    private static final int VERSION = 1;
+    private static final byte END = 0;
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_LONG = 1;
+    private static final byte VALUE_DOUBLE = 2;
+    private static final byte VALUE_STRING = 3;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private EventArchive() {
+    }
+
+    static final class Writer implements Closeable {
+        private final FileOutputStream stream;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final String[][] columns;
+        private long bytes;
+
+        /**
+         * @param columns the columns of each row type, indexed by type
+         */
+        Writer(File file, String[][] columns) throws IOException {
+            this.stream = new FileOutputStream(file);
+            this.channel = stream.getChannel();
+            this.columns = columns;
+
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            for (byte type = EVENT; type <= ATTENDEE; type++) {
+                buffer.put(type);
+                buffer.putShort((short) columns[type].length);
+                for (String column : columns[type]) {
+                    putString(column);
+                }
+            }
+        }
+
+        /**
+         * Copies the cursor's current row, whose projection must be the columns of the type.
+         */
+        void writeRow(byte type, long eventID, Cursor cursor) throws IOException {
+            ensure(1 + 8);
+            buffer.put(type);
+            buffer.putLong(eventID);
+
+            for (int i = 0; i < columns[type].length; i++) {
+                switch (cursor.getType(i)) {
+                    case Cursor.FIELD_TYPE_INTEGER:
+                        ensure(1 + 8);
+                        buffer.put(VALUE_LONG);
+                        buffer.putLong(cursor.getLong(i));
+                        break;
+                    case Cursor.FIELD_TYPE_FLOAT:
+                        ensure(1 + 8);
+                        buffer.put(VALUE_DOUBLE);
+                        buffer.putDouble(cursor.getDouble(i));
+                        break;
+                    case Cursor.FIELD_TYPE_STRING:
+                        ensure(1);
+                        buffer.put(VALUE_STRING);
+                        putString(cursor.getString(i));
+                        break;
+                    default:
+                        // blobs aren't among the exported columns
+                        ensure(1);
+                        buffer.put(VALUE_NULL);
+                        break;
+                }
+            }
+        }
+
+        /**
+         * Returns the archive size, once closed.
+         */
+        long size() {
+            return bytes;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                ensure(1);
+                buffer.put(END);
+                drain();
+                channel.force(false);
+            } finally {
+                stream.close();
+            }
+        }
+
+        private void putString(String value) throws IOException {
+            byte[] data = value.getBytes(UTF_8);
+            ensure(4);
+            buffer.putInt(data.length);
+            if (data.length <= buffer.remaining()) {
+                buffer.put(data);
+                return;
+            }
+
+            // long descriptions may not fit the buffer, they are written straight to the channel
+            drain();
+            ByteBuffer wrapped = ByteBuffer.wrap(data);
+            while (wrapped.hasRemaining()) {
+                bytes += channel.write(wrapped);
+            }
+        }
+
+        private void ensure(int size) throws IOException {
+            if (buffer.remaining() < size) {
+                drain();
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                bytes += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    static final class Row {
+        final byte type;
+        final long eventID;
+        /** Non-null values only, null columns being left to their defaults on insert. */
+        final ContentValues values;
+
+        Row(byte type, long eventID, ContentValues values) {
+            this.type = type;
+            this.eventID = eventID;
+            this.values = values;
+        }
+    }
+
+    static final class Reader implements Closeable {
+        private final FileInputStream stream;
+        private final MappedByteBuffer buffer;
+        private final String[][] columns = new String[ATTENDEE + 1][];
+
+        Reader(File file) throws IOException {
+            this.stream = new FileInputStream(file);
+            FileChannel channel = stream.getChannel();
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            boolean valid = false;
+            try {
+                if (buffer.getInt() != MAGIC) {
+                    throw new IOException("Not an events archive");
+                }
+                int version = buffer.getInt();
+                if (version != VERSION) {
+                    throw new IOException("Unsupported events archive version " + version);
+                }
+                // every row type is declared once, in order
+                for (int i = EVENT; i <= ATTENDEE; i++) {
+                    byte type = buffer.get();
+                    short count = buffer.getShort();
+                    if (type != i || count < 0) {
+                        throw new IOException("Corrupted events archive");
+                    }
+                    String[] typeColumns = new String[count];
+                    for (int j = 0; j < typeColumns.length; j++) {
+                        typeColumns[j] = getString();
+                    }
+                    columns[type] = typeColumns;
+                }
+                valid = true;
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Truncated events archive");
+            } finally {
+                if (!valid) {
+                    stream.close();
+                }
+            }
+        }
+
+        /**
+         * Returns the next row, or null once every row was read.
+         */
+        Row next() throws IOException {
+            try {
+                byte type = buffer.get();
+                if (type == END) {
+                    return null;
+                }
+                if (type < EVENT || type > ATTENDEE) {
+                    throw new IOException("Corrupted events archive");
+                }
+
+                long eventID = buffer.getLong();
+                ContentValues values = new ContentValues();
+                for (String column : columns[type]) {
+                    byte tag = buffer.get();
+                    if (tag == VALUE_LONG) {
+                        values.put(column, buffer.getLong());
+                    } else if (tag == VALUE_DOUBLE) {
+                        values.put(column, buffer.getDouble());
+                    } else if (tag == VALUE_STRING) {
+                        values.put(column, getString());
+                    } else if (tag != VALUE_NULL) {
+                        throw new IOException("Corrupted events archive");
+                    }
+                }
+                return new Row(type, eventID, values);
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Truncated events archive");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            stream.close();
+        }
+
+        private String getString() throws IOException {
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IOException("Corrupted events archive");
+            }
+            byte[] data = new byte[length];
+            buffer.get(data);
+            return new String(data, UTF_8);
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.calendarevents;
+
+import android.content.ContentResolver;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.provider.CalendarContract;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Watches the calendar provider and reports which events were added, updated
+ * or removed, so JS can patch what it displays instead of re-querying whole ranges.
+ *
+ * Provider notifications carry no row IDs and come in bursts while a sync adapter
+ * runs, so they are debounced and then compared against a snapshot holding a
+ * fingerprint of every event, its reminders and its attendees. The DIRTY flag
+ * can't be used instead: sync adapters clear it, which would hide remote changes.
+ * Only events with an occurrence in a window around the time observing started
+ * are fingerprinted, so a change costs a scan of that window rather than of the
+ * whole calendar history. Each reported delta gets a new token, following the
+ * token of the previous one.
+ */
+class EventChangeFeed {
+
+    interface Provider {
+        /**
+         * Queries the provider, the way the module's other reads do so they are measured alike.
+         */
+        Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs, String sortOrder);
+    }
+
+    interface Listener {
+        void onEventsChanged(long token, long previousToken, ArrayList<String> added, ArrayList<String> updated, ArrayList<String> removed);
+    }
+
+    static final long DEFAULT_DEBOUNCE_MS = 500;
+
+    private static final String TAG = "RNCalendarEvents";
+
+    private static final long WINDOW_PAST_MS = 30L * 24 * 60 * 60 * 1000;
+    private static final long WINDOW_FUTURE_MS = 365L * 24 * 60 * 60 * 1000;
+    private static final int MAX_SELECTION_ARGS = 500;
+
+    private static final String EVENTS_IN_WINDOW_SELECTION =
+            "(" + CalendarContract.Events.DELETED + " != 1) " +
+            "AND (" + CalendarContract.Events.DTSTART + " < ?) " +
+            "AND (" + CalendarContract.Events.LAST_DATE + " IS NULL OR " + CalendarContract.Events.LAST_DATE + " >= ?)";
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final Uri[] OBSERVED_URIS = new Uri[] {
+            CalendarContract.Events.CONTENT_URI,
+            CalendarContract.Instances.CONTENT_URI,
+            CalendarContract.Reminders.CONTENT_URI,
+            CalendarContract.Attendees.CONTENT_URI
+    };
+
+    private static final String[] EVENT_PROJECTION = new String[] {
+            CalendarContract.Events._ID,
+            CalendarContract.Events.CALENDAR_ID,
+            CalendarContract.Events.TITLE,
+            CalendarContract.Events.DESCRIPTION,
+            CalendarContract.Events.EVENT_LOCATION,
+            CalendarContract.Events.DTSTART,
+            CalendarContract.Events.DTEND,
+            CalendarContract.Events.DURATION,
+            CalendarContract.Events.ALL_DAY,
+            CalendarContract.Events.RRULE,
+            CalendarContract.Events.EXDATE,
+            CalendarContract.Events.AVAILABILITY,
+            CalendarContract.Events.STATUS,
+            CalendarContract.Events.HAS_ALARM,
+            CalendarContract.Events.ORIGINAL_ID,
+            CalendarContract.Events.ORIGINAL_INSTANCE_TIME
+    };
+
+    private static final String[] REMINDER_PROJECTION = new String[] {
+            CalendarContract.Reminders.EVENT_ID,
+            CalendarContract.Reminders.MINUTES,
+            CalendarContract.Reminders.METHOD
+    };
+
+    private static final String[] ATTENDEE_PROJECTION = new String[] {
+            CalendarContract.Attendees.EVENT_ID,
+            CalendarContract.Attendees.ATTENDEE_EMAIL,
+            CalendarContract.Attendees.ATTENDEE_NAME,
+            CalendarContract.Attendees.ATTENDEE_RELATIONSHIP,
+            CalendarContract.Attendees.ATTENDEE_STATUS
+    };
+
+    private final ContentResolver resolver;
+    private final Provider provider;
+    private final Listener listener;
+
+    private HandlerThread thread;
+    private Handler handler;
+    private ContentObserver observer;
+    private long debounceMs = DEFAULT_DEBOUNCE_MS;
+    private long windowStart;
+    private long windowEnd;
+
+    // read on the feed thread, replaced under the lock so stop() can drop it
+    private HashMap<String, Long> snapshot;
+    private long token;
+
+    private final Runnable diffRunnable = new Runnable() {
+        @Override
+        public void run() {
+            diff();
+        }
+    };
+
+    EventChangeFeed(ContentResolver resolver, Provider provider, Listener listener) {
+        this.resolver = resolver;
+        this.provider = provider;
+        this.listener = listener;
+    }
+
+    synchronized void start(long debounceMs) {
+        this.debounceMs = debounceMs >= 0 ? debounceMs : DEFAULT_DEBOUNCE_MS;
+        if (thread != null) {
+            return;
+        }
+
+        // fixed while observing, so events don't appear or disappear as the window slides
+        long now = System.currentTimeMillis();
+        windowStart = now - WINDOW_PAST_MS;
+        windowEnd = now + WINDOW_FUTURE_MS;
+
+        thread = new HandlerThread("RNCalendarEvents-changes", Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        handler = new Handler(thread.getLooper());
+        observer = new ContentObserver(handler) {
+            @Override
+            public void onChange(boolean selfChange) {
+                scheduleDiff();
+            }
+        };
+
+        try {
+            for (Uri uri : OBSERVED_URIS) {
+                resolver.registerContentObserver(uri, true, observer);
+            }
+        } catch (SecurityException e) {
+            Log.w(TAG, "Unable to observe event changes", e);
+        }
+
+        // the baseline every later change is compared with
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                HashMap<String, Long> baseline = loadSnapshot();
+                synchronized (EventChangeFeed.this) {
+                    if (isFeedThread() && snapshot == null) {
+                        snapshot = baseline;
+                    }
+                }
+            }
+        });
+    }
+
+    synchronized void stop() {
+        if (thread == null) {
+            return;
+        }
+
+        resolver.unregisterContentObserver(observer);
+        handler.removeCallbacks(diffRunnable);
+        thread.quit();
+        thread = null;
+        handler = null;
+        observer = null;
+        // a later start() takes a new baseline rather than diffing against this one
+        snapshot = null;
+    }
+
+    /**
+     * Whether the caller runs on the thread of the current start(), rather than on one
+     * that stop() let finish its last diff.
+     */
+    private boolean isFeedThread() {
+        return handler != null && handler.getLooper() == Looper.myLooper();
+    }
+
+    private synchronized void scheduleDiff() {
+        if (handler == null) {
+            return;
+        }
+        // restart the delay on every notification, so a burst ends in a single diff
+        handler.removeCallbacks(diffRunnable);
+        handler.postDelayed(diffRunnable, debounceMs);
+    }
+
+    private void diff() {
+        HashMap<String, Long> current = loadSnapshot();
+        if (current == null) {
+            return;
+        }
+
+        HashMap<String, Long> snapshot;
+        long previousToken;
+        synchronized (this) {
+            if (!isFeedThread()) {
+                return;
+            }
+            snapshot = this.snapshot;
+            this.snapshot = current;
+            if (snapshot == null) {
+                return;
+            }
+            previousToken = token;
+        }
+
+        ArrayList<String> added = new ArrayList<>();
+        ArrayList<String> updated = new ArrayList<>();
+        ArrayList<String> removed = new ArrayList<>();
+
+        for (Map.Entry<String, Long> entry : current.entrySet()) {
+            Long previous = snapshot.get(entry.getKey());
+            if (previous == null) {
+                added.add(entry.getKey());
+            } else if (!previous.equals(entry.getValue())) {
+                updated.add(entry.getKey());
+            }
+        }
+        for (String eventID : snapshot.keySet()) {
+            if (!current.containsKey(eventID)) {
+                removed.add(eventID);
+            }
+        }
+
+        if (added.isEmpty() && updated.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+
+        long nextToken;
+        synchronized (this) {
+            nextToken = ++token;
+        }
+        listener.onEventsChanged(nextToken, previousToken, added, updated, removed);
+    }
+
+    /**
+     * Returns a fingerprint of every event of the window, or null when the provider can't be read.
+     */
+    private HashMap<String, Long> loadSnapshot() {
+        HashMap<String, Long> fingerprints = new HashMap<>();
+
+        try {
+            Cursor cursor = provider.query(CalendarContract.Events.CONTENT_URI, EVENT_PROJECTION, EVENTS_IN_WINDOW_SELECTION,
+                    new String[]{Long.toString(windowEnd), Long.toString(windowStart)}, null);
+            if (cursor == null) {
+                return null;
+            }
+            try {
+                while (cursor.moveToNext()) {
+                    fingerprints.put(cursor.getString(0), fingerprint(FNV_OFFSET, cursor));
+                }
+            } finally {
+                cursor.close();
+            }
+
+            // relations are folded into the fingerprint of their event
+            ArrayList<String> eventIDs = new ArrayList<>(fingerprints.keySet());
+            for (int i = 0; i < eventIDs.size(); i += MAX_SELECTION_ARGS) {
+                String[] ids = eventIDs.subList(i, Math.min(eventIDs.size(), i + MAX_SELECTION_ARGS)).toArray(new String[0]);
+                foldRows(fingerprints, CalendarContract.Reminders.CONTENT_URI, REMINDER_PROJECTION, ids);
+                foldRows(fingerprints, CalendarContract.Attendees.CONTENT_URI, ATTENDEE_PROJECTION, ids);
+            }
+        } catch (SecurityException e) {
+            Log.w(TAG, "Unable to read events", e);
+            return null;
+        }
+
+        return fingerprints;
+    }
+
+    /**
+     * Folds the rows of the events into their fingerprints, the event ID being the first
+     * column of the projection.
+     */
+    private void foldRows(HashMap<String, Long> fingerprints, Uri uri, String[] projection, String[] eventIDs) {
+        // sorted, so the same rows always fold to the same fingerprint
+        Cursor cursor = provider.query(uri, projection, SelectionBuilder.in(projection[0]).build(eventIDs.length), eventIDs,
+                joinSortOrder(projection));
+        if (cursor == null) {
+            return;
+        }
+
+        try {
+            while (cursor.moveToNext()) {
+                String eventID = cursor.getString(0);
+                Long hash = fingerprints.get(eventID);
+                if (hash != null) {
+                    fingerprints.put(eventID, fingerprint(hash, cursor));
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private static String joinSortOrder(String[] projection) {
+        StringBuilder sortOrder = new StringBuilder();
+        for (String column : projection) {
+            if (sortOrder.length() > 0) {
+                sortOrder.append(", ");
+            }
+            sortOrder.append(column);
+        }
+        return sortOrder.toString();
+    }
+
+    /**
+     * FNV-1a over the columns of the current row, starting from {@code hash}.
+     */
+    private static long fingerprint(long hash, Cursor cursor) {
+        for (int i = 0; i < cursor.getColumnCount(); i++) {
+            String value = cursor.getString(i);
+            if (value != null) {
+                for (int j = 0; j < value.length(); j++) {
+                    hash = (hash ^ value.charAt(j)) * FNV_PRIME;
+                }
+            }
+            // separator, so ("ab", "c") and ("a", "bc") differ, as do null and ""
+            hash = (hash ^ (value != null ? 0x1F : 0x1E)) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
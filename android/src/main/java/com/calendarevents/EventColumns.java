@@ -0,0 +1,61 @@
+package com.calendarevents;
+
+import android.database.Cursor;
+import android.provider.CalendarContract;
+
+/**
+ * Column indexes of an event cursor, resolved once per cursor instead of once
+ * per row. Events and Instances cursors are both supported: the start and end
+ * columns resolve to DTSTART/DTEND or BEGIN/END, whichever is projected.
+ * Optional columns missing from the projection resolve to -1.
+ */
+final class EventColumns {
+
+    final int id;
+    final int title;
+    final int description;
+    final int startDate;
+    final int endDate;
+    final int allDay;
+    final int location;
+    final int rrule;
+    final int calendarId;
+    final int availability;
+    final int hasAlarm;
+    final int duration;
+    final int originalInstanceTime;
+    final int originalId;
+    final int originalSyncId;
+
+    private EventColumns(Cursor cursor) {
+        // the event id is always projected first, as _ID for events or EVENT_ID for instances
+        id = 0;
+        title = cursor.getColumnIndex(CalendarContract.Events.TITLE);
+        description = cursor.getColumnIndex(CalendarContract.Events.DESCRIPTION);
+        startDate = firstColumnIndex(cursor, CalendarContract.Instances.BEGIN, CalendarContract.Events.DTSTART);
+        endDate = firstColumnIndex(cursor, CalendarContract.Instances.END, CalendarContract.Events.DTEND);
+        allDay = cursor.getColumnIndex(CalendarContract.Events.ALL_DAY);
+        location = cursor.getColumnIndex(CalendarContract.Events.EVENT_LOCATION);
+        rrule = cursor.getColumnIndex(CalendarContract.Events.RRULE);
+        calendarId = cursor.getColumnIndex(CalendarContract.Events.CALENDAR_ID);
+        availability = cursor.getColumnIndex(CalendarContract.Events.AVAILABILITY);
+        hasAlarm = cursor.getColumnIndex(CalendarContract.Events.HAS_ALARM);
+        duration = cursor.getColumnIndex(CalendarContract.Events.DURATION);
+        originalInstanceTime = cursor.getColumnIndex(CalendarContract.Events.ORIGINAL_INSTANCE_TIME);
+        originalId = cursor.getColumnIndex(CalendarContract.Events.ORIGINAL_ID);
+        originalSyncId = cursor.getColumnIndex(CalendarContract.Events.ORIGINAL_SYNC_ID);
+    }
+
+    static EventColumns of(Cursor cursor) {
+        return new EventColumns(cursor);
+    }
+
+    static boolean isPresent(Cursor cursor, int index) {
+        return index != -1 && !cursor.isNull(index);
+    }
+
+    private static int firstColumnIndex(Cursor cursor, String name, String fallback) {
+        int index = cursor.getColumnIndex(name);
+        return index != -1 ? index : cursor.getColumnIndex(fallback);
+    }
+}
@@ -0,0 +1,144 @@
+package com.calendarevents;
+
+import android.provider.CalendarContract;
+
+import com.facebook.react.bridge.ReadableArray;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+
+/**
+ * Event keys requested by JS, used to trim both the provider projection and the
+ * serialized maps. A list view only needing a few keys then leaves descriptions,
+ * recurrence rules and relations out of the CursorWindow and the bridge.
+ *
+ * Lite queries keep their historic shape: the calendar is only referenced by its
+ * {@code calendar_id} and attendees, alarms and availability are left out.
+ */
+final class EventFields {
+
+    static final EventFields ALL = new EventFields(null, false);
+    static final EventFields LITE = new EventFields(null, true);
+
+    /** Requested keys, or null for every key. */
+    private final HashSet<String> fields;
+    final boolean isLite;
+
+    private EventFields(HashSet<String> fields, boolean isLite) {
+        this.fields = fields;
+        this.isLite = isLite;
+    }
+
+    /**
+     * @param fields requested keys, every key being serialized when null or empty
+     */
+    static EventFields of(ReadableArray fields, boolean isLite) {
+        if (fields == null || fields.size() == 0) {
+            return isLite ? LITE : ALL;
+        }
+
+        HashSet<String> keys = new HashSet<>();
+        for (int i = 0; i < fields.size(); i++) {
+            keys.add(fields.getString(i));
+        }
+        // the id is needed to match relations and to tell events apart
+        keys.add("id");
+        return new EventFields(keys, isLite);
+    }
+
+    /**
+     * Returns a key identifying the serialized shape, equal for equal requests.
+     */
+    String key() {
+        if (fields == null) {
+            return isLite ? "lite:*" : "*";
+        }
+
+        ArrayList<String> sorted = new ArrayList<>(fields);
+        Collections.sort(sorted);
+        StringBuilder key = new StringBuilder(isLite ? "lite:" : "");
+        for (String field : sorted) {
+            key.append(field).append(',');
+        }
+        return key.toString();
+    }
+
+    boolean has(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    boolean hasCalendar() {
+        return has("calendar") || (isLite && has("calendar_id"));
+    }
+
+    boolean hasAttendees() {
+        return !isLite && has("attendees");
+    }
+
+    boolean hasAlarms() {
+        return !isLite && has("alarms");
+    }
+
+    boolean hasAvailability() {
+        return !isLite && has("availability");
+    }
+
+    boolean hasRecurrence() {
+        return has("recurrence") || has("recurrenceRule");
+    }
+
+    boolean hasRelations() {
+        return !isLite && (has("calendar") || has("attendees") || has("alarms"));
+    }
+
+    /**
+     * Returns the columns needed to serialize the requested keys, the id column first.
+     * Start and end are always read, instances being cached by their interval.
+     */
+    String[] projection(String idColumn, String startColumn, String endColumn) {
+        ArrayList<String> columns = new ArrayList<>();
+        columns.add(idColumn);
+
+        if (has("title")) {
+            columns.add(CalendarContract.Events.TITLE);
+        }
+        if (has("description")) {
+            columns.add(CalendarContract.Events.DESCRIPTION);
+        }
+        columns.add(startColumn);
+        columns.add(endColumn);
+        if (has("allDay")) {
+            columns.add(CalendarContract.Events.ALL_DAY);
+        }
+        if (has("location")) {
+            columns.add(CalendarContract.Events.EVENT_LOCATION);
+        }
+        if (hasRecurrence()) {
+            columns.add(CalendarContract.Events.RRULE);
+        }
+        if (hasCalendar()) {
+            columns.add(CalendarContract.Events.CALENDAR_ID);
+        }
+        if (hasAvailability()) {
+            columns.add(CalendarContract.Events.AVAILABILITY);
+        }
+        if (hasAlarms()) {
+            columns.add(CalendarContract.Events.HAS_ALARM);
+        }
+        if (has("originalId")) {
+            columns.add(CalendarContract.Events.ORIGINAL_ID);
+        }
+        if (has("recurrenceRule")) {
+            columns.add(CalendarContract.Events.DURATION);
+        }
+        if (has("syncId")) {
+            columns.add(CalendarContract.Events.ORIGINAL_SYNC_ID);
+        }
+        if (has("originalInstanceTime")) {
+            columns.add(CalendarContract.Events.ORIGINAL_INSTANCE_TIME);
+        }
+
+        return columns.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,378 @@
+package com.calendarevents;
+
+import android.content.ContentResolver;
+import android.database.ContentObserver;
+import android.net.Uri;
+import android.os.CancellationSignal;
+import android.provider.CalendarContract;
+import android.util.Log;
+
+import com.facebook.react.bridge.WritableNativeArray;
+import com.facebook.react.bridge.WritableNativeMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of serialized event instances, indexed by the time ranges
+ * they were loaded for.
+ *
+ * Each query shape, i.e. a calendar set and the requested fields, keeps a sorted
+ * list of disjoint covered ranges and its instances sorted by begin. Scrolling
+ * back and forth over overlapping windows then only loads the sub-ranges that
+ * were never covered, everything else being answered from memory. Any provider
+ * notification drops the whole cache, and like {@link CalendarCache} the cached
+ * maps are templates that are copied before being handed to the bridge.
+ */
+class EventRangeCache {
+
+    interface Loader {
+        /**
+         * Loads the instances overlapping {@code [start, end)}, the way findAllEvents matches them.
+         * Throws {@link android.os.OperationCanceledException} once the signal is cancelled.
+         */
+        List<Instance> loadInstances(String[] calendarIDs, EventFields fields, long start, long end, CancellationSignal signal);
+    }
+
+    static final class Instance {
+        /** Event ID and begin, an instance of a recurring event being loaded once per overlapping range. */
+        final String key;
+        final long begin;
+        final long end;
+        final WritableNativeMap event;
+
+        Instance(String eventID, long begin, long end, WritableNativeMap event) {
+            this.key = eventID + ":" + begin;
+            this.begin = begin;
+            this.end = end;
+            this.event = event;
+        }
+    }
+
+    private static final String TAG = "RNCalendarEvents";
+
+    private static final int MAX_SHAPES = 8;
+    private static final int MAX_INSTANCES_PER_SHAPE = 10000;
+
+    private static final Uri[] OBSERVED_URIS = new Uri[] {
+            CalendarContract.Calendars.CONTENT_URI,
+            CalendarContract.Events.CONTENT_URI,
+            CalendarContract.Instances.CONTENT_URI,
+            CalendarContract.Reminders.CONTENT_URI,
+            CalendarContract.Attendees.CONTENT_URI
+    };
+
+    private static final Comparator<Instance> BY_BEGIN = new Comparator<Instance>() {
+        @Override
+        public int compare(Instance a, Instance b) {
+            return a.begin < b.begin ? -1 : (a.begin == b.begin ? 0 : 1);
+        }
+    };
+
+    private final ContentResolver resolver;
+    private final Loader loader;
+    private final ContentObserver observer;
+
+    private final LinkedHashMap<String, Shape> shapes = new LinkedHashMap<String, Shape>(MAX_SHAPES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Shape> eldest) {
+            return size() > MAX_SHAPES;
+        }
+    };
+    private int version;
+    private boolean observing;
+
+    EventRangeCache(ContentResolver resolver, Loader loader) {
+        this.resolver = resolver;
+        this.loader = loader;
+        this.observer = new ContentObserver(null) {
+            @Override
+            public void onChange(boolean selfChange) {
+                invalidate();
+            }
+        };
+    }
+
+    /**
+     * Returns copies of the instances overlapping {@code [start, end)}, sorted by begin,
+     * only loading the parts of the range that aren't cached yet. Nothing is stored when
+     * the load is cancelled.
+     */
+    WritableNativeArray get(String[] calendarIDs, EventFields fields, long start, long end, CancellationSignal signal) {
+        if (start >= end) {
+            // an empty range matches the instances spanning its start, which no covered range tells about
+            return copy(loader.loadInstances(calendarIDs, fields, start, end, signal));
+        }
+        return copy(fill(calendarIDs, fields, start, end, true, signal));
+    }
+
+    /**
+     * Returns copies of the instances overlapping {@code [start, end)} when the range is
+     * entirely cached, or null without loading anything otherwise.
+     */
+    WritableNativeArray peek(String[] calendarIDs, EventFields fields, long start, long end) {
+        if (start >= end) {
+            return null;
+        }
+
+        List<Instance> cached;
+        synchronized (this) {
+            Shape shape = shapes.get(shapeKey(calendarIDs, fields));
+            if (shape == null || !shape.missing(start, end).isEmpty()) {
+                return null;
+            }
+            cached = shape.overlapping(start, end);
+        }
+        return copy(cached);
+    }
+
+    /**
+     * Loads the parts of {@code [start, end)} that aren't cached yet, without copying anything out.
+     * Throws {@link android.os.OperationCanceledException} once the signal is cancelled.
+     */
+    void prefetch(String[] calendarIDs, EventFields fields, long start, long end, CancellationSignal signal) {
+        if (start < end) {
+            fill(calendarIDs, fields, start, end, false, signal);
+        }
+    }
+
+    /**
+     * Loads and stores the missing parts of the range, then returns every overlapping
+     * instance when {@code collect} is set, or null otherwise.
+     */
+    private List<Instance> fill(String[] calendarIDs, EventFields fields, long start, long end, boolean collect, CancellationSignal signal) {
+        String key = shapeKey(calendarIDs, fields);
+        List<Instance> cached;
+        List<long[]> missing;
+        int loadVersion;
+
+        synchronized (this) {
+            observe();
+            loadVersion = version;
+            Shape shape = shapes.get(key);
+            if (shape != null) {
+                missing = shape.missing(start, end);
+                cached = collect ? shape.overlapping(start, end) : Collections.<Instance>emptyList();
+            } else {
+                cached = Collections.emptyList();
+                missing = Collections.singletonList(new long[]{start, end});
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return collect ? cached : null;
+        }
+
+        ArrayList<List<Instance>> loaded = new ArrayList<>();
+        for (long[] range : missing) {
+            loaded.add(loader.loadInstances(calendarIDs, fields, range[0], range[1], signal));
+        }
+
+        synchronized (this) {
+            // a change notified while loading means the loaded rows may already be outdated
+            if (loadVersion == version && observing) {
+                Shape shape = shapes.get(key);
+                if (shape == null) {
+                    shape = new Shape();
+                    shapes.put(key, shape);
+                }
+                for (int i = 0; i < missing.size(); i++) {
+                    shape.add(missing.get(i), loaded.get(i));
+                }
+                if (shape.size() > MAX_INSTANCES_PER_SHAPE) {
+                    shapes.remove(key);
+                }
+            }
+        }
+
+        if (!collect) {
+            return null;
+        }
+
+        LinkedHashMap<String, Instance> merged = new LinkedHashMap<>();
+        for (Instance instance : cached) {
+            merged.put(instance.key, instance);
+        }
+        for (List<Instance> instances : loaded) {
+            for (Instance instance : instances) {
+                merged.put(instance.key, instance);
+            }
+        }
+
+        ArrayList<Instance> results = new ArrayList<>(merged.values());
+        Collections.sort(results, BY_BEGIN);
+        return results;
+    }
+
+    synchronized void invalidate() {
+        shapes.clear();
+        version++;
+    }
+
+    synchronized void release() {
+        if (observing) {
+            resolver.unregisterContentObserver(observer);
+            observing = false;
+        }
+        shapes.clear();
+    }
+
+    private void observe() {
+        if (observing) {
+            return;
+        }
+
+        try {
+            for (Uri uri : OBSERVED_URIS) {
+                resolver.registerContentObserver(uri, true, observer);
+            }
+            observing = true;
+        } catch (SecurityException e) {
+            Log.w(TAG, "Unable to observe event changes", e);
+        }
+    }
+
+    private static WritableNativeArray copy(List<Instance> instances) {
+        WritableNativeArray results = new WritableNativeArray();
+        for (Instance instance : instances) {
+            WritableNativeMap event = new WritableNativeMap();
+            event.merge(instance.event);
+            results.pushMap(event);
+        }
+        return results;
+    }
+
+    /**
+     * Returns the key of a query shape, the same whatever the order of the calendars.
+     */
+    static String shapeKey(String[] calendarIDs, EventFields fields) {
+        String[] sorted = calendarIDs.clone();
+        Arrays.sort(sorted);
+
+        StringBuilder key = new StringBuilder(fields.key()).append('|');
+        for (String calendarID : sorted) {
+            key.append(calendarID).append(',');
+        }
+        return key.toString();
+    }
+
+    /**
+     * Instances of one query shape along with the ranges they cover.
+     */
+    private static final class Shape {
+        /** Disjoint covered ranges, sorted by start. */
+        private final ArrayList<long[]> covered = new ArrayList<>();
+        /** Instances sorted by begin. */
+        private final ArrayList<Instance> instances = new ArrayList<>();
+        private final HashMap<String, Instance> instancesByKey = new HashMap<>();
+        /** Longest instance, bounding how far before a range its overlapping instances may begin. */
+        private long maxDuration;
+
+        int size() {
+            return instances.size();
+        }
+
+        List<long[]> missing(long start, long end) {
+            ArrayList<long[]> missing = new ArrayList<>();
+            long position = start;
+
+            for (long[] range : covered) {
+                if (range[1] <= position) {
+                    continue;
+                }
+                if (range[0] >= end) {
+                    break;
+                }
+                if (range[0] > position) {
+                    missing.add(new long[]{position, range[0]});
+                }
+                position = range[1];
+                if (position >= end) {
+                    break;
+                }
+            }
+
+            if (position < end) {
+                missing.add(new long[]{position, end});
+            }
+            return missing;
+        }
+
+        /**
+         * Returns the instances matching {@code begin < end && instance end >= start}, as the provider query does.
+         */
+        List<Instance> overlapping(long start, long end) {
+            ArrayList<Instance> results = new ArrayList<>();
+            for (int i = lowerBound(start - maxDuration); i < instances.size(); i++) {
+                Instance instance = instances.get(i);
+                if (instance.begin >= end) {
+                    break;
+                }
+                if (instance.end >= start) {
+                    results.add(instance);
+                }
+            }
+            return results;
+        }
+
+        void add(long[] range, List<Instance> loaded) {
+            for (Instance instance : loaded) {
+                Instance previous = instancesByKey.put(instance.key, instance);
+                if (previous != null) {
+                    instances.remove(previous);
+                }
+                instances.add(upperBound(instance.begin), instance);
+                maxDuration = Math.max(maxDuration, instance.end - instance.begin);
+            }
+            cover(range[0], range[1]);
+        }
+
+        private void cover(long start, long end) {
+            int i = 0;
+            while (i < covered.size() && covered.get(i)[1] < start) {
+                i++;
+            }
+            // merge every range touching the new one
+            while (i < covered.size() && covered.get(i)[0] <= end) {
+                long[] range = covered.remove(i);
+                start = Math.min(start, range[0]);
+                end = Math.max(end, range[1]);
+            }
+            covered.add(i, new long[]{start, end});
+        }
+
+        private int lowerBound(long begin) {
+            int low = 0;
+            int high = instances.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (instances.get(mid).begin < begin) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int upperBound(long begin) {
+            int low = 0;
+            int high = instances.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (instances.get(mid).begin <= begin) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
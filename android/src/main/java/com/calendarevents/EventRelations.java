@@ -0,0 +1,52 @@
+package com.calendarevents;
+
+import com.facebook.react.bridge.WritableNativeMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Calendars, attendees and reminders fetched in bulk for a set of event rows,
+ * so serializing a cursor costs a handful of provider queries instead of
+ * three per row.
+ */
+class EventRelations {
+
+    private final HashMap<String, WritableNativeMap> calendars;
+    private final HashMap<String, ArrayList<String[]>> attendees;
+    private final HashMap<String, ArrayList<Integer>> reminders;
+
+    EventRelations(HashMap<String, WritableNativeMap> calendars,
+                   HashMap<String, ArrayList<String[]>> attendees,
+                   HashMap<String, ArrayList<Integer>> reminders) {
+        this.calendars = calendars;
+        this.attendees = attendees;
+        this.reminders = reminders;
+    }
+
+    /**
+     * Native maps are consumed once pushed to the bridge, so each event gets its own copy.
+     */
+    WritableNativeMap getCalendar(String calendarID) {
+        WritableNativeMap calendar = calendars.get(calendarID);
+        if (calendar == null) {
+            return null;
+        }
+
+        WritableNativeMap copy = new WritableNativeMap();
+        copy.merge(calendar);
+        return copy;
+    }
+
+    List<String[]> getAttendees(String eventID) {
+        ArrayList<String[]> rows = attendees.get(eventID);
+        return rows != null ? rows : Collections.<String[]>emptyList();
+    }
+
+    List<Integer> getReminderMinutes(String eventID) {
+        ArrayList<Integer> minutes = reminders.get(eventID);
+        return minutes != null ? minutes : Collections.<Integer>emptyList();
+    }
+}
@@ -0,0 +1,155 @@
+package com.calendarevents;
+
+import android.database.Cursor;
+import android.os.CancellationSignal;
+import android.provider.CalendarContract;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+
+/**
+ * Text search over event instances, filtered by the provider rather than in JS.
+ *
+ * The query is split into words, each of which must appear in the title, the
+ * location or the description: every word adds a {@code LIKE} clause to the
+ * instances selection, so only matching rows are read. Like with
+ * {@link SelectionBuilder}, the SQL only depends on the number of words and the
+ * words themselves go through the selection arguments.
+ */
+final class EventSearch {
+
+    static final int MAX_TOKENS = 8;
+
+    private static final String[] TEXT_COLUMNS = new String[] {
+            CalendarContract.Events.TITLE,
+            CalendarContract.Events.EVENT_LOCATION,
+            CalendarContract.Events.DESCRIPTION
+    };
+    /** Score of a word found in the title, the location and the description. */
+    private static final int[] TEXT_WEIGHTS = new int[] {4, 2, 1};
+    private static final int TITLE_PREFIX_BONUS = 2;
+
+    private final String[] tokens;
+
+    EventSearch(String query) {
+        LinkedHashSet<String> tokens = new LinkedHashSet<>();
+        for (String token : query.trim().toLowerCase().split("\\s+")) {
+            if (!token.isEmpty() && tokens.size() < MAX_TOKENS) {
+                tokens.add(token);
+            }
+        }
+        this.tokens = tokens.toArray(new String[tokens.size()]);
+    }
+
+    boolean isEmpty() {
+        return tokens.length == 0;
+    }
+
+    /**
+     * Returns the clause matching every word, to AND with the rest of the selection.
+     */
+    String clause() {
+        StringBuilder clause = new StringBuilder();
+        for (int i = 0; i < tokens.length; i++) {
+            if (i > 0) {
+                clause.append(" AND ");
+            }
+            clause.append('(');
+            for (int j = 0; j < TEXT_COLUMNS.length; j++) {
+                if (j > 0) {
+                    clause.append(" OR ");
+                }
+                clause.append(TEXT_COLUMNS[j]).append(" LIKE ? ESCAPE '\\'");
+            }
+            clause.append(')');
+        }
+        return clause.toString();
+    }
+
+    /**
+     * Returns the LIKE patterns in the order of {@link #clause()}.
+     */
+    String[] args() {
+        String[] args = new String[tokens.length * TEXT_COLUMNS.length];
+        for (int i = 0; i < tokens.length; i++) {
+            String pattern = "%" + escape(tokens[i]) + "%";
+            Arrays.fill(args, i * TEXT_COLUMNS.length, (i + 1) * TEXT_COLUMNS.length, pattern);
+        }
+        return args;
+    }
+
+    int tokenCount() {
+        return tokens.length;
+    }
+
+    /**
+     * Adds the text columns scored by {@link #rank} to a projection.
+     */
+    static String[] withTextColumns(String[] projection) {
+        LinkedHashSet<String> columns = new LinkedHashSet<>(Arrays.asList(projection));
+        columns.addAll(Arrays.asList(TEXT_COLUMNS));
+        return columns.toArray(new String[columns.size()]);
+    }
+
+    /**
+     * Returns the positions of the {@code limit} best matching rows of a cursor sorted by
+     * begin, best first. Equal scores keep their begin order. Only the text columns are read.
+     */
+    int[] rank(Cursor cursor, int limit, CancellationSignal signal) {
+        int[] columns = new int[TEXT_COLUMNS.length];
+        for (int j = 0; j < TEXT_COLUMNS.length; j++) {
+            columns[j] = cursor.getColumnIndex(TEXT_COLUMNS[j]);
+        }
+
+        ArrayList<int[]> scores = new ArrayList<>();
+        cursor.moveToPosition(-1);
+        while (cursor.moveToNext()) {
+            if (signal != null) {
+                signal.throwIfCanceled();
+            }
+            scores.add(new int[]{cursor.getPosition(), score(cursor, columns)});
+        }
+
+        // stable, so ties stay sorted by begin
+        Collections.sort(scores, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] a, int[] b) {
+                return b[1] - a[1];
+            }
+        });
+
+        int[] positions = new int[Math.min(limit, scores.size())];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = scores.get(i)[0];
+        }
+        return positions;
+    }
+
+    private int score(Cursor cursor, int[] columns) {
+        int score = 0;
+        for (int j = 0; j < columns.length; j++) {
+            if (columns[j] == -1 || cursor.isNull(columns[j])) {
+                continue;
+            }
+
+            String text = cursor.getString(columns[j]).toLowerCase();
+            for (String token : tokens) {
+                int index = text.indexOf(token);
+                if (index != -1) {
+                    score += TEXT_WEIGHTS[j];
+                    if (j == 0 && index == 0) {
+                        score += TITLE_PREFIX_BONUS;
+                    }
+                }
+            }
+        }
+        return score;
+    }
+
+    private static String escape(String token) {
+        return token.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
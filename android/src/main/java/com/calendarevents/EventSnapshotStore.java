@@ -0,0 +1,314 @@
+package com.calendarevents;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serialized instances of the last range fetched per query shape, persisted so
+ * that the first agenda of a cold start renders before the provider answers.
+ *
+ * Each shape, i.e. a calendar set and the requested fields, gets one small
+ * binary file holding a format version, the range, the time it was saved and
+ * the instances with their interval. Files are written to a temporary file and
+ * renamed, so a crash never leaves a torn snapshot behind, and only the most
+ * recently written shapes are kept.
+ */
+class EventSnapshotStore {
+
+    static final class Entry {
+        /** Event ID and begin, as {@link EventRangeCache.Instance} keys. */
+        final String key;
+        final String eventID;
+        final long begin;
+        final long end;
+        final HashMap<String, Object> event;
+
+        Entry(String eventID, long begin, long end, HashMap<String, Object> event) {
+            this.key = eventID + ":" + begin;
+            this.eventID = eventID;
+            this.begin = begin;
+            this.end = end;
+            this.event = event;
+        }
+    }
+
+    static final class Snapshot {
+        final long start;
+        final long end;
+        /** Save time, which no provider change older than it can have been missed by. */
+        final long savedAt;
+        final List<Entry> entries;
+
+        Snapshot(long start, long end, long savedAt, List<Entry> entries) {
+            this.start = start;
+            this.end = end;
+            this.savedAt = savedAt;
+            this.entries = entries;
+        }
+
+        boolean covers(long start, long end) {
+            return this.start <= start && end <= this.end;
+        }
+
+        /**
+         * Returns the entries matching {@code begin < end && entry end >= start}, as the provider query does.
+         */
+        List<Entry> overlapping(long start, long end) {
+            ArrayList<Entry> results = new ArrayList<>();
+            for (Entry entry : entries) {
+                if (entry.begin < end && entry.end >= start) {
+                    results.add(entry);
+                }
+            }
+            return results;
+        }
+    }
+
+    private static final String TAG = "RNCalendarEvents";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int MAGIC = 0x524e4345;
+    private static final int VERSION = 1;
+    private static final int MAX_SNAPSHOTS = 4;
+    private static final int MAX_ENTRIES = 2000;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_FALSE = 1;
+    private static final byte TYPE_TRUE = 2;
+    private static final byte TYPE_NUMBER = 3;
+    private static final byte TYPE_STRING = 4;
+    private static final byte TYPE_MAP = 5;
+    private static final byte TYPE_ARRAY = 6;
+
+    private final File directory;
+
+    EventSnapshotStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the snapshot of the shape, or null when there is none or it can't be read.
+     */
+    synchronized Snapshot read(String shapeKey) {
+        File file = fileFor(shapeKey);
+        if (!file.exists()) {
+            return null;
+        }
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(shapeKey)) {
+                return null;
+            }
+
+            long start = in.readLong();
+            long end = in.readLong();
+            long savedAt = in.readLong();
+            int count = in.readInt();
+
+            ArrayList<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String eventID = in.readUTF();
+                long begin = in.readLong();
+                long entryEnd = in.readLong();
+                @SuppressWarnings("unchecked")
+                HashMap<String, Object> event = (HashMap<String, Object>) readValue(in);
+                entries.add(new Entry(eventID, begin, entryEnd, event));
+            }
+            return new Snapshot(start, end, savedAt, entries);
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Unable to read the events snapshot", e);
+            file.delete();
+            return null;
+        } finally {
+            close(in);
+        }
+    }
+
+    /**
+     * Replaces the snapshot of the shape. Ranges with too many instances aren't persisted,
+     * reading them back would cost more than querying the provider.
+     */
+    synchronized void write(String shapeKey, long start, long end, List<Entry> entries) {
+        File file = fileFor(shapeKey);
+        if (entries.size() > MAX_ENTRIES) {
+            file.delete();
+            return;
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.w(TAG, "Unable to create " + directory);
+            return;
+        }
+
+        File temporary = new File(directory, file.getName() + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(shapeKey);
+            out.writeLong(start);
+            out.writeLong(end);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                out.writeUTF(entry.eventID);
+                out.writeLong(entry.begin);
+                out.writeLong(entry.end);
+                writeValue(out, entry.event);
+            }
+            out.close();
+            out = null;
+
+            if (!temporary.renameTo(file)) {
+                throw new IOException("Unable to rename " + temporary);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to write the events snapshot", e);
+            temporary.delete();
+            return;
+        } finally {
+            close(out);
+        }
+
+        trim();
+    }
+
+    synchronized void clear() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    private void trim() {
+        File[] files = directory.listFiles();
+        if (files == null || files.length <= MAX_SNAPSHOTS) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                long difference = b.lastModified() - a.lastModified();
+                return difference < 0 ? -1 : (difference == 0 ? 0 : 1);
+            }
+        });
+        for (int i = MAX_SNAPSHOTS; i < files.length; i++) {
+            files[i].delete();
+        }
+    }
+
+    private File fileFor(String shapeKey) {
+        // FNV-1a, keys being too long and too free-form for file names
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < shapeKey.length(); i++) {
+            hash ^= shapeKey.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return new File(directory, Long.toHexString(hash) + ".snapshot");
+    }
+
+    /**
+     * Writes a value of {@code ReadableMap.toHashMap()}: null, booleans, numbers, strings, maps and lists.
+     */
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TYPE_TRUE : TYPE_FALSE);
+        } else if (value instanceof Number) {
+            out.writeByte(TYPE_NUMBER);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof String) {
+            // writeUTF is limited to 64KB, which long descriptions can exceed
+            byte[] bytes = ((String) value).getBytes(UTF_8);
+            out.writeByte(TYPE_STRING);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(TYPE_MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                out.writeUTF(entry.getKey().toString());
+                writeValue(out, entry.getValue());
+            }
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(TYPE_ARRAY);
+            out.writeInt(list.size());
+            for (Object item : list) {
+                writeValue(out, item);
+            }
+        } else {
+            throw new IOException("Unsupported value " + value.getClass());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_FALSE:
+                return false;
+            case TYPE_TRUE:
+                return true;
+            case TYPE_NUMBER:
+                return in.readDouble();
+            case TYPE_STRING: {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return new String(bytes, UTF_8);
+            }
+            case TYPE_MAP: {
+                int size = in.readInt();
+                HashMap<String, Object> map = new HashMap<>();
+                for (int i = 0; i < size; i++) {
+                    String key = in.readUTF();
+                    map.put(key, readValue(in));
+                }
+                return map;
+            }
+            case TYPE_ARRAY: {
+                int size = in.readInt();
+                ArrayList<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            default:
+                throw new IOException("Unknown value type " + type);
+        }
+    }
+
+    private static void close(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.calendarevents;
+
+import java.util.Arrays;
+
+/**
+ * Sweep-merge of busy intervals, working on primitive arrays only.
+ *
+ * Starts and ends are sorted separately and swept together counting the open
+ * intervals, which gives the union without sorting interval objects. Intervals
+ * that touch are merged, and bounds are widened to the granularity before
+ * merging so callers get slots instead of odd minute boundaries.
+ */
+final class FreeBusy {
+
+    private FreeBusy() {
+    }
+
+    /**
+     * Returns the union of the first {@code count} intervals clipped to {@code [rangeStart, rangeEnd)},
+     * flattened as {@code [start0, end0, start1, end1, ...]}.
+     *
+     * @param granularity slot length in millis, 0 to keep the exact bounds
+     */
+    static long[] merge(long[] starts, long[] ends, int count, long rangeStart, long rangeEnd, long granularity) {
+        long[] sortedStarts = new long[count];
+        long[] sortedEnds = new long[count];
+        int size = 0;
+
+        for (int i = 0; i < count; i++) {
+            long start = Math.max(floor(starts[i], granularity), rangeStart);
+            long end = Math.min(ceil(ends[i], granularity), rangeEnd);
+            if (start < end) {
+                sortedStarts[size] = start;
+                sortedEnds[size] = end;
+                size++;
+            }
+        }
+
+        Arrays.sort(sortedStarts, 0, size);
+        Arrays.sort(sortedEnds, 0, size);
+
+        long[] merged = new long[size * 2];
+        int length = 0;
+        int open = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < size) {
+            // at equal times starts go first, so touching intervals merge
+            if (sortedStarts[i] <= sortedEnds[j]) {
+                if (open++ == 0) {
+                    merged[length++] = sortedStarts[i];
+                }
+                i++;
+            } else {
+                if (--open == 0) {
+                    merged[length++] = sortedEnds[j];
+                }
+                j++;
+            }
+        }
+        if (size > 0) {
+            // the last end closes whatever is still open
+            merged[length++] = sortedEnds[size - 1];
+        }
+
+        return Arrays.copyOf(merged, length);
+    }
+
+    private static long floor(long value, long granularity) {
+        if (granularity <= 0) {
+            return value;
+        }
+        long remainder = value % granularity;
+        return remainder < 0 ? value - remainder - granularity : value - remainder;
+    }
+
+    private static long ceil(long value, long granularity) {
+        long floor = floor(value, granularity);
+        return floor == value ? value : floor + granularity;
+    }
+}
@@ -0,0 +1,128 @@
+package com.calendarevents;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative values.
+ *
+ * Buckets are log-linear: every power of two is split into four buckets, so
+ * percentiles are within 25% of the recorded values whatever their magnitude,
+ * with a fixed 248 counters. Recording is a few atomic increments and never
+ * blocks the calling thread. Snapshots taken while values are being recorded
+ * may be off by the values in flight.
+ */
+final class Histogram {
+
+    private static final int SUB_BUCKETS = 4;
+    private static final int SUB_BUCKET_BITS = 2;
+    // values up to 2^63 - 1, i.e. exponents up to 62
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+
+        buckets.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+
+        long current = min.get();
+        while (value < current && !min.compareAndSet(current, value)) {
+            current = min.get();
+        }
+        current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Returns the recorded statistics, clearing them when {@code reset} is set.
+     */
+    Snapshot snapshot(boolean reset) {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = reset ? buckets.getAndSet(i, 0) : buckets.get(i);
+        }
+
+        return new Snapshot(
+                reset ? count.getAndSet(0) : count.get(),
+                reset ? sum.getAndSet(0) : sum.get(),
+                reset ? min.getAndSet(Long.MAX_VALUE) : min.get(),
+                reset ? max.getAndSet(Long.MIN_VALUE) : max.get(),
+                counts);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Smallest value falling in the bucket.
+     */
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        long subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    static final class Snapshot {
+        final long count;
+        final long sum;
+        final long min;
+        final long max;
+        private final long[] buckets;
+
+        Snapshot(long count, long sum, long min, long max, long[] buckets) {
+            this.count = count;
+            this.sum = sum;
+            this.min = count > 0 ? min : 0;
+            this.max = count > 0 ? max : 0;
+            this.buckets = buckets;
+        }
+
+        double mean() {
+            return count > 0 ? (double) sum / count : 0;
+        }
+
+        /**
+         * Returns the value below which the given fraction of the values fall, as the
+         * lower bound of its bucket clamped to the recorded min and max.
+         */
+        long percentile(double fraction) {
+            long total = 0;
+            for (long bucketCount : buckets) {
+                total += bucketCount;
+            }
+            if (total == 0) {
+                return 0;
+            }
+
+            long rank = (long) Math.ceil(fraction * total);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && buckets[i] > 0) {
+                    return Math.max(min, Math.min(max, lowerBound(i)));
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.calendarevents;
+
+import com.facebook.react.bridge.WritableNativeMap;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional instrumentation of the module: named histograms of durations in
+ * microseconds and of row counts.
+ *
+ * Disabled by default, in which case {@link #start()} returns {@link #OFF} and
+ * recording is a single volatile read, so instrumented paths cost nothing
+ * measurable unless somebody asked for metrics.
+ */
+class Metrics {
+
+    static final long OFF = Long.MIN_VALUE;
+
+    private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the start of a measurement to pass to {@link #stop}, or {@link #OFF}.
+     */
+    long start() {
+        return enabled ? System.nanoTime() : OFF;
+    }
+
+    /**
+     * Records the microseconds elapsed since {@code started}, unless it is {@link #OFF}.
+     */
+    void stop(String name, long started) {
+        if (started != OFF) {
+            histogram(name).record((System.nanoTime() - started) / 1000);
+        }
+    }
+
+    void record(String name, long value) {
+        if (enabled) {
+            histogram(name).record(value);
+        }
+    }
+
+    /**
+     * Wraps a task so both the time it spent queued and its total latency, from now to
+     * the end of its run, are recorded under the method name.
+     */
+    Runnable timed(final String method, final Runnable task) {
+        final long queued = start();
+        if (queued == OFF) {
+            return task;
+        }
+
+        return new Runnable() {
+            @Override
+            public void run() {
+                stop("queue." + method, queued);
+                try {
+                    task.run();
+                } finally {
+                    stop("method." + method, queued);
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns {@code {name: {count, sum, min, max, mean, p50, p90, p99}}}, clearing the
+     * histograms when {@code reset} is set.
+     */
+    WritableNativeMap snapshot(boolean reset) {
+        WritableNativeMap result = new WritableNativeMap();
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Histogram.Snapshot snapshot = entry.getValue().snapshot(reset);
+            if (snapshot.count == 0) {
+                continue;
+            }
+
+            WritableNativeMap map = new WritableNativeMap();
+            map.putDouble("count", snapshot.count);
+            map.putDouble("sum", snapshot.sum);
+            map.putDouble("min", snapshot.min);
+            map.putDouble("max", snapshot.max);
+            map.putDouble("mean", snapshot.mean());
+            map.putDouble("p50", snapshot.percentile(0.5));
+            map.putDouble("p90", snapshot.percentile(0.9));
+            map.putDouble("p99", snapshot.percentile(0.99));
+            result.putMap(entry.getKey(), map);
+        }
+        return result;
+    }
+
+    private Histogram histogram(String name) {
+        Histogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = new Histogram();
+            Histogram existing = histograms.putIfAbsent(name, histogram);
+            if (existing != null) {
+                histogram = existing;
+            }
+        }
+        return histogram;
+    }
+}
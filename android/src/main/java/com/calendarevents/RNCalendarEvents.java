@@ -1,9 +1,17 @@
 package com.calendarevents;
 
 import android.app.Activity;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
 import android.content.ContentResolver;
 import android.content.ContentUris;
 import android.content.ContentValues;
+import android.content.OperationApplicationException;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.OperationCanceledException;
+import android.os.RemoteException;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.content.SharedPreferences;
@@ -15,6 +23,7 @@ import android.database.Cursor;
 import android.accounts.Account;
 import android.accounts.AccountManager;
 
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContext;
@@ -28,17 +37,28 @@ import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.bridge.WritableNativeArray;
 import com.facebook.react.bridge.WritableNativeMap;
 import com.facebook.react.bridge.Dynamic;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
 import com.facebook.react.modules.core.PermissionAwareActivity;
 import com.facebook.react.modules.core.PermissionListener;
 
+import java.io.File;
+import java.io.IOException;
 import java.sql.Array;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import android.util.Log;
 
 public class RNCalendarEvents extends ReactContextBaseJavaModule implements PermissionListener {
@@ -47,10 +67,67 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
     private final ReactContext reactContext;
     private static final String RNC_PREFS = "REACT_NATIVE_CALENDAR_PREFERENCES";
     private static final HashMap<Integer, Promise> permissionsPromises = new HashMap<>();
+    private final CalendarExecutor executor;
+    private final CalendarCache calendarCache;
+    private final ConcurrentHashMap<String, AtomicBoolean> eventStreams = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CancellationSignal> cancellations = new ConcurrentHashMap<>();
+    private final EventChangeFeed changeFeed;
+    private final EventRangeCache rangeCache;
+    private final AtomicInteger prefetchGeneration = new AtomicInteger();
+    private final RequestCoalescer requests = new RequestCoalescer();
+    private final AtomicInteger writeGeneration = new AtomicInteger();
+    private final Metrics metrics = new Metrics();
+    private final EventSnapshotStore snapshots;
+    private final Handler metricsHandler = new Handler(Looper.getMainLooper());
+    private Runnable metricsReport;
+
+    private static final String EVENTS_STREAM_PAGE = "RNCalendarEventsStreamPage";
+    private static final String EVENTS_CHANGED = "RNCalendarEventsChanged";
+    private static final String METRICS_REPORT = "RNCalendarEventsMetrics";
+    private static final String EVENTS_SNAPSHOT_REFRESH = "RNCalendarEventsSnapshotRefresh";
+    private static final long MIN_METRICS_REPORT_INTERVAL = 1000;
+    private static final int DEFAULT_STREAM_PAGE_SIZE = 100;
+    private static final int MAX_PREFETCH_WINDOWS = 4;
+    private static final int DEFAULT_SEARCH_LIMIT = 50;
 
     public RNCalendarEvents(ReactApplicationContext reactContext) {
+        this(reactContext, CalendarExecutor.DEFAULT_READ_PARALLELISM);
+    }
+
+    public RNCalendarEvents(ReactApplicationContext reactContext, int readParallelism) {
         super(reactContext);
         this.reactContext = reactContext;
+        this.executor = new CalendarExecutor(readParallelism);
+        this.snapshots = new EventSnapshotStore(new File(reactContext.getFilesDir(), "RNCalendarEvents/snapshots"));
+        this.calendarCache = new CalendarCache(reactContext.getContentResolver(), new CalendarCache.Loader() {
+            @Override
+            public LinkedHashMap<String, WritableNativeMap> loadCalendars() {
+                return queryCalendars();
+            }
+        });
+        this.rangeCache = new EventRangeCache(reactContext.getContentResolver(), new EventRangeCache.Loader() {
+            @Override
+            public List<EventRangeCache.Instance> loadInstances(String[] calendarIDs, EventFields fields, long start, long end, CancellationSignal signal) {
+                return RNCalendarEvents.this.loadInstances(calendarIDs, fields, start, end, signal);
+            }
+        });
+        this.changeFeed = new EventChangeFeed(reactContext.getContentResolver(), new EventChangeFeed.Provider() {
+            @Override
+            public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs, String sortOrder) {
+                return RNCalendarEvents.this.query(reactContext.getContentResolver(), uri, projection, selection, selectionArgs, sortOrder);
+            }
+        }, new EventChangeFeed.Listener() {
+            @Override
+            public void onEventsChanged(long token, long previousToken, ArrayList<String> added, ArrayList<String> updated, ArrayList<String> removed) {
+                WritableNativeMap payload = new WritableNativeMap();
+                payload.putString("token", Long.toString(token));
+                payload.putString("previousToken", Long.toString(previousToken));
+                payload.putArray("added", Arguments.makeNativeArray(added));
+                payload.putArray("updated", Arguments.makeNativeArray(updated));
+                payload.putArray("removed", Arguments.makeNativeArray(removed));
+                sendEvent(EVENTS_CHANGED, payload);
+            }
+        });
     }
 
     @Override
@@ -58,6 +135,16 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
         return "RNCalendarEvents";
     }
 
+    @Override
+    public void onCatalystInstanceDestroy() {
+        super.onCatalystInstanceDestroy();
+        executor.shutdown();
+        calendarCache.release();
+        rangeCache.release();
+        changeFeed.stop();
+        stopMetricsReports();
+    }
+
     //region Calendar Permissions
     private void requestCalendarPermission(boolean readOnly, final Promise promise)
     {
@@ -134,16 +221,10 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
 
     //endregion
 
-    private WritableNativeArray findEventCalendars() {
-
-        Cursor cursor;
-        ContentResolver cr = reactContext.getContentResolver();
-
-        Uri uri = CalendarContract.Calendars.CONTENT_URI;
-
+    private static String[] calendarProjection() {
         String IS_PRIMARY = CalendarContract.Calendars.IS_PRIMARY == null ? "0" : CalendarContract.Calendars.IS_PRIMARY;
 
-        cursor = cr.query(uri, new String[]{
+        return new String[]{
                 CalendarContract.Calendars._ID,
                 CalendarContract.Calendars.CALENDAR_DISPLAY_NAME,
                 CalendarContract.Calendars.ACCOUNT_NAME,
@@ -152,30 +233,51 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
                 CalendarContract.Calendars.ALLOWED_AVAILABILITY,
                 CalendarContract.Calendars.ACCOUNT_TYPE,
                 CalendarContract.Calendars.CALENDAR_COLOR
-        }, null, null, null);
+        };
+    }
+
+    private WritableNativeArray findEventCalendars() {
+
+        WritableNativeArray results = new WritableNativeArray();
+
+        for (WritableNativeMap calendar : calendarCache.getAll().values()) {
+            WritableNativeMap copy = new WritableNativeMap();
+            copy.merge(calendar);
+            results.pushMap(copy);
+        }
+
+        return results;
+    }
+
+    private LinkedHashMap<String, WritableNativeMap> queryCalendars() {
+
+        LinkedHashMap<String, WritableNativeMap> results = new LinkedHashMap<>();
+        ContentResolver cr = reactContext.getContentResolver();
+
+        Cursor cursor = query(cr, CalendarContract.Calendars.CONTENT_URI, calendarProjection(), null, null, null);
 
-        return serializeEventCalendars(cursor);
+        if (cursor != null) {
+            while (cursor.moveToNext()) {
+                results.put(cursor.getString(0), serializeEventCalendar(cursor));
+            }
+            cursor.close();
+        }
+
+        return results;
     }
 
     private WritableNativeMap findCalendarById(String calendarID) {
 
-        WritableNativeMap result;
+        WritableNativeMap result = calendarCache.get(calendarID);
+        if (result != null) {
+            return result;
+        }
+
         Cursor cursor;
         ContentResolver cr = reactContext.getContentResolver();
         Uri uri = ContentUris.withAppendedId(CalendarContract.Calendars.CONTENT_URI, Integer.parseInt(calendarID));
 
-        String IS_PRIMARY = CalendarContract.Calendars.IS_PRIMARY == null ? "0" : CalendarContract.Calendars.IS_PRIMARY;
-
-        cursor = cr.query(uri, new String[]{
-                CalendarContract.Calendars._ID,
-                CalendarContract.Calendars.CALENDAR_DISPLAY_NAME,
-                CalendarContract.Calendars.ACCOUNT_NAME,
-                IS_PRIMARY,
-                CalendarContract.Calendars.CALENDAR_ACCESS_LEVEL,
-                CalendarContract.Calendars.ALLOWED_AVAILABILITY,
-                CalendarContract.Calendars.ACCOUNT_TYPE,
-                CalendarContract.Calendars.CALENDAR_COLOR
-        }, null, null, null);
+        cursor = query(cr, uri, calendarProjection(), null, null, null);
 
         if (cursor != null && cursor.moveToFirst()) {
             result = serializeEventCalendar(cursor);
@@ -271,7 +373,8 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
 
         Uri calendarsUri = uriBuilder.build();
 
-        Uri calendarUri = cr.insert(calendarsUri, calendarValues);
+        Uri calendarUri = insert(cr, calendarsUri, calendarValues);
+        calendarCache.invalidate();
         return Integer.parseInt(calendarUri.getLastPathSegment());
     }
 
@@ -282,7 +385,8 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
             ContentResolver cr = reactContext.getContentResolver();
 
             Uri uri = ContentUris.withAppendedId(CalendarContract.Calendars.CONTENT_URI, (long) Integer.parseInt(calendarID));
-            rows = cr.delete(uri, null, null);
+            rows = delete(cr, uri, null, null);
+            calendarCache.invalidate();
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -291,113 +395,541 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
         return rows > 0;
     }
 
-    private WritableNativeArray findAttendeesByEventId(String eventID) {
-        WritableNativeArray result;
-        Cursor cursor;
+    //region Event Relations
+    private static final int MAX_SELECTION_ARGS = 500;
+
+    /**
+     * Resolves the relations of the next {@code count} rows of the cursor, leaving it where it was.
+     */
+    private EventRelations findEventRelations(Cursor cursor, EventColumns columns, EventFields fields, int count) {
+        int position = cursor.getPosition();
+        int size = Math.max(0, Math.min(count, cursor.getCount() - position - 1));
+
+        int[] positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = position + 1 + i;
+        }
+        return findEventRelations(cursor, columns, fields, positions);
+    }
+
+    /**
+     * Resolves the relations of the rows at the given positions, leaving the cursor where it was.
+     */
+    private EventRelations findEventRelations(Cursor cursor, EventColumns columns, EventFields fields, int[] positions) {
+        HashSet<String> eventIDs = new HashSet<>();
+        HashSet<String> alarmEventIDs = new HashSet<>();
+        HashSet<String> calendarIDs = new HashSet<>();
+        int position = cursor.getPosition();
+
+        for (int rowPosition : positions) {
+            if (!cursor.moveToPosition(rowPosition)) {
+                continue;
+            }
+            String eventID = cursor.getString(columns.id);
+            if (fields.hasAttendees()) {
+                eventIDs.add(eventID);
+            }
+            if (fields.hasAlarms() && cursor.getInt(columns.hasAlarm) > 0) {
+                alarmEventIDs.add(eventID);
+            }
+            if (fields.hasCalendar()) {
+                calendarIDs.add(cursor.getString(columns.calendarId));
+            }
+        }
+        cursor.moveToPosition(position);
+
+        long started = metrics.start();
+        EventRelations relations = new EventRelations(
+                findCalendarsByIds(calendarIDs),
+                findAttendeesByEventIds(eventIDs),
+                findRemindersByEventIds(alarmEventIDs)
+        );
+        metrics.stop("find.relations", started);
+        return relations;
+    }
+
+    private HashMap<String, WritableNativeMap> findCalendarsByIds(Collection<String> calendarIDs) {
+        HashMap<String, WritableNativeMap> results = new HashMap<>();
+        ArrayList<String> missingIDs = new ArrayList<>();
+        Map<String, WritableNativeMap> cached = calendarCache.getAll();
+
+        for (String calendarID : calendarIDs) {
+            WritableNativeMap calendar = cached.get(calendarID);
+            if (calendar != null) {
+                results.put(calendarID, calendar);
+            } else {
+                missingIDs.add(calendarID);
+            }
+        }
+
         ContentResolver cr = reactContext.getContentResolver();
-        String query = "(" + CalendarContract.Attendees.EVENT_ID + " = ?)";
-        String[] args = new String[]{eventID};
 
-        cursor = cr.query(CalendarContract.Attendees.CONTENT_URI, new String[]{
-                CalendarContract.Attendees._ID,
-                CalendarContract.Attendees.EVENT_ID,
-                CalendarContract.Attendees.ATTENDEE_NAME,
-                CalendarContract.Attendees.ATTENDEE_EMAIL,
-                CalendarContract.Attendees.ATTENDEE_TYPE,
-                CalendarContract.Attendees.ATTENDEE_RELATIONSHIP,
-                CalendarContract.Attendees.ATTENDEE_STATUS,
-                CalendarContract.Attendees.ATTENDEE_IDENTITY,
-                CalendarContract.Attendees.ATTENDEE_ID_NAMESPACE
-        }, query, args, null);
+        for (String[] ids : chunkSelectionArgs(missingIDs)) {
+            Cursor cursor = query(cr, CalendarContract.Calendars.CONTENT_URI, calendarProjection(),
+                    inSelection(CalendarContract.Calendars._ID, ids.length), ids, null);
 
-        if (cursor != null && cursor.moveToFirst()) {
-            result = serializeAttendeeCalendar(cursor);
-            cursor.close();
-        } else {
-            WritableNativeArray emptyAttendees = new WritableNativeArray();
-            result = emptyAttendees;
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    results.put(cursor.getString(0), serializeEventCalendar(cursor));
+                }
+                cursor.close();
+            }
         }
 
-        return result;
+        return results;
+    }
+
+    private HashMap<String, ArrayList<String[]>> findAttendeesByEventIds(Collection<String> eventIDs) {
+        HashMap<String, ArrayList<String[]>> results = new HashMap<>();
+        ContentResolver cr = reactContext.getContentResolver();
+
+        for (String[] ids : chunkSelectionArgs(eventIDs)) {
+            Cursor cursor = query(cr, CalendarContract.Attendees.CONTENT_URI, new String[]{
+                    CalendarContract.Attendees._ID,
+                    CalendarContract.Attendees.EVENT_ID,
+                    CalendarContract.Attendees.ATTENDEE_NAME,
+                    CalendarContract.Attendees.ATTENDEE_EMAIL,
+                    CalendarContract.Attendees.ATTENDEE_TYPE,
+                    CalendarContract.Attendees.ATTENDEE_RELATIONSHIP,
+                    CalendarContract.Attendees.ATTENDEE_STATUS,
+                    CalendarContract.Attendees.ATTENDEE_IDENTITY,
+                    CalendarContract.Attendees.ATTENDEE_ID_NAMESPACE
+            }, inSelection(CalendarContract.Attendees.EVENT_ID, ids.length), ids, null);
+
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    String eventID = cursor.getString(1);
+                    ArrayList<String[]> attendees = results.get(eventID);
+                    if (attendees == null) {
+                        attendees = new ArrayList<>();
+                        results.put(eventID, attendees);
+                    }
+                    attendees.add(new String[]{
+                            cursor.getString(2),
+                            cursor.getString(3),
+                            cursor.getString(4),
+                            cursor.getString(5),
+                            cursor.getString(6),
+                            cursor.getString(7),
+                            cursor.getString(8)
+                    });
+                }
+                cursor.close();
+            }
+        }
+
+        return results;
+    }
+
+    private HashMap<String, ArrayList<Integer>> findRemindersByEventIds(Collection<String> eventIDs) {
+        HashMap<String, ArrayList<Integer>> results = new HashMap<>();
+        ContentResolver cr = reactContext.getContentResolver();
+
+        for (String[] ids : chunkSelectionArgs(eventIDs)) {
+            Cursor cursor = query(cr, CalendarContract.Reminders.CONTENT_URI, new String[]{
+                    CalendarContract.Reminders.EVENT_ID,
+                    CalendarContract.Reminders.MINUTES
+            }, inSelection(CalendarContract.Reminders.EVENT_ID, ids.length), ids, null);
+
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    int minutes;
+                    try {
+                        minutes = cursor.getInt(1);
+                    } catch (Exception e) {
+                        Log.d(this.getName(), "Error parsing event minutes", e);
+                        continue;
+                    }
+
+                    String eventID = cursor.getString(0);
+                    ArrayList<Integer> reminders = results.get(eventID);
+                    if (reminders == null) {
+                        reminders = new ArrayList<>();
+                        results.put(eventID, reminders);
+                    }
+                    reminders.add(minutes);
+                }
+                cursor.close();
+            }
+        }
+
+        return results;
+    }
+
+    static ArrayList<String[]> chunkSelectionArgs(Collection<String> values) {
+        ArrayList<String[]> chunks = new ArrayList<>();
+        ArrayList<String> chunk = new ArrayList<>();
+
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            chunk.add(value);
+            if (chunk.size() == MAX_SELECTION_ARGS) {
+                chunks.add(chunk.toArray(new String[0]));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk.toArray(new String[0]));
+        }
+
+        return chunks;
+    }
+
+    private static String inSelection(String column, int count) {
+        return SelectionBuilder.in(column).build(count);
     }
+    //endregion
 
     //region Event Accessors
-    private WritableNativeArray findEvents(Dynamic startDate, Dynamic endDate, ReadableArray calendars, Boolean isLite) {
-        String dateFormat = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
-        SimpleDateFormat sdf = new SimpleDateFormat(dateFormat);
-        sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
+    private static final String INSTANCES_IN_RANGE_CLAUSE =
+            "(" + CalendarContract.Instances.BEGIN + " < ?) " +
+            "AND (" + CalendarContract.Instances.END + " >= ?) " +
+            "AND (" + CalendarContract.Instances.VISIBLE + " = 1) " +
+            "AND (" + CalendarContract.Instances.STATUS + " IS NOT " + CalendarContract.Events.STATUS_CANCELED + ")";
+
+    private static final SelectionBuilder INSTANCES_IN_RANGE_SELECTION = new SelectionBuilder(
+            INSTANCES_IN_RANGE_CLAUSE, CalendarContract.Instances.CALENDAR_ID);
+
+    /** Search selections by number of words, their SQL only depending on it. */
+    private static final ConcurrentHashMap<Integer, SelectionBuilder> SEARCH_SELECTIONS = new ConcurrentHashMap<>();
+
+    private static final SelectionBuilder INSTANCE_BY_ID_SELECTION = new SelectionBuilder(
+            "Instances._ID = ?", null);
+
+    private WritableNativeArray findEvents(long startDate, long endDate, String[] calendarIDs, EventFields fields, boolean useCache,
+                                           CancellationSignal signal) {
+        if (useCache) {
+            return rangeCache.get(calendarIDs, fields, startDate, endDate, signal);
+        }
+        return serializeEvents(queryInstances(startDate, endDate, calendarIDs, fields, signal), fields, signal);
+    }
+
+    private WritableNativeMap findCompactEvents(long startDate, long endDate, String[] calendarIDs, EventFields fields, CancellationSignal signal) {
+        Cursor cursor = queryInstances(startDate, endDate, calendarIDs, fields, signal);
+        try {
+            return serializeCompactEvents(cursor, fields, signal);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
+    /**
+     * Returns the instances of the range matching every word of the search, at most
+     * {@code limit} of them, by begin or by relevance. The provider only returns matching
+     * rows, of which only those returned are serialized.
+     */
+    private WritableNativeArray searchEvents(EventSearch search, long startDate, long endDate, String[] calendarIDs, EventFields fields,
+                                             int limit, boolean byRelevance, CancellationSignal signal) {
+        SelectionBuilder selection = SEARCH_SELECTIONS.get(search.tokenCount());
+        if (selection == null) {
+            selection = new SelectionBuilder(search.isEmpty() ? INSTANCES_IN_RANGE_CLAUSE : INSTANCES_IN_RANGE_CLAUSE + " AND " + search.clause(),
+                    CalendarContract.Instances.CALENDAR_ID);
+            SEARCH_SELECTIONS.put(search.tokenCount(), selection);
+        }
+
+        String[] clauseArgs = SelectionBuilder.args(new String[]{
+                Long.toString(endDate),
+                Long.toString(startDate)
+        }, search.args());
+
+        Uri.Builder uriBuilder = CalendarContract.Instances.CONTENT_URI.buildUpon();
+        ContentUris.appendId(uriBuilder, startDate);
+        ContentUris.appendId(uriBuilder, endDate);
+
+        String[] projection = fields.projection(
+                CalendarContract.Instances.EVENT_ID,
+                CalendarContract.Instances.BEGIN,
+                CalendarContract.Instances.END
+        );
+
+        Cursor cursor = query(reactContext.getContentResolver(), uriBuilder.build(),
+                byRelevance ? EventSearch.withTextColumns(projection) : projection,
+                selection.build(calendarIDs.length), SelectionBuilder.args(clauseArgs, calendarIDs),
+                CalendarContract.Instances.BEGIN + " ASC", signal);
+
+        WritableNativeArray results = new WritableNativeArray();
+        if (cursor == null) {
+            return results;
+        }
+
+        try {
+            int[] positions;
+            if (byRelevance) {
+                positions = search.rank(cursor, limit, signal);
+            } else {
+                positions = new int[Math.min(limit, cursor.getCount())];
+                for (int i = 0; i < positions.length; i++) {
+                    positions[i] = i;
+                }
+            }
+
+            EventColumns columns = EventColumns.of(cursor);
+            EventRelations relations = fields.hasRelations() ? findEventRelations(cursor, columns, fields, positions) : null;
+
+            long started = metrics.start();
+            for (int position : positions) {
+                throwIfCanceled(signal);
+                cursor.moveToPosition(position);
+                results.pushMap(serializeEvent(cursor, columns, fields, relations));
+            }
+            metrics.stop("serialize.events", started);
+            metrics.record("rows.events", results.size());
+        } finally {
+            cursor.close();
+        }
+
+        return results;
+    }
+
+    /**
+     * Identical findAllEvents calls share this key while one of them runs. The write
+     * generation keeps calls made after a write from joining a query started before it.
+     */
+    private String findEventsRequestKey(long[] range, String[] calendarIDs, EventFields fields, boolean useCache, boolean compact,
+                                        String requestId) {
+        String[] sortedIDs = calendarIDs.clone();
+        Arrays.sort(sortedIDs);
+
+        StringBuilder key = new StringBuilder("events|").append(writeGeneration.get())
+                .append('|').append(range[0])
+                .append('|').append(range[1])
+                .append('|').append(fields.key())
+                .append('|').append(useCache)
+                .append('|').append(compact)
+                // a cancellable call runs on its own, so cancelling it doesn't fail identical calls
+                .append('|').append(requestId)
+                .append('|');
+        for (String calendarID : sortedIDs) {
+            key.append(calendarID).append(',');
+        }
+        return key.toString();
+    }
+
+    /**
+     * Called once a write went through, so cached and in-flight reads from before it aren't reused.
+     */
+    private void onEventsWritten() {
+        writeGeneration.incrementAndGet();
+        rangeCache.invalidate();
+    }
+
+    private static String requestIdFromOptions(ReadableMap options) {
+        return options != null && options.hasKey("requestId") ? options.getString("requestId") : null;
+    }
 
-        Calendar eStartDate = Calendar.getInstance();
-        Calendar eEndDate = Calendar.getInstance();
+    /**
+     * Returns the signal cancelling the read started under the request ID, or null when
+     * the caller gave none.
+     */
+    private CancellationSignal registerCancellation(String requestId) {
+        if (requestId == null) {
+            return null;
+        }
+        CancellationSignal signal = new CancellationSignal();
+        cancellations.put(requestId, signal);
+        return signal;
+    }
+
+    private void releaseCancellation(String requestId, CancellationSignal signal) {
+        if (requestId != null) {
+            cancellations.remove(requestId, signal);
+        }
+    }
+
+    private Cursor queryEvents(Dynamic startDate, Dynamic endDate, ReadableArray calendars, EventFields fields) {
+        long[] range = parseRange(startDate, endDate);
+        return queryInstances(range[0], range[1], calendarIdsFromArray(calendars), fields, null);
+    }
+
+    private static int prefetchWindowsFromOptions(ReadableMap options) {
+        if (options == null || !options.hasKey("prefetch")) {
+            return 0;
+        }
+
+        ReadableType type = options.getType("prefetch");
+        if (type == ReadableType.Boolean) {
+            return options.getBoolean("prefetch") ? 1 : 0;
+        } else if (type == ReadableType.Number) {
+            return Math.max(0, Math.min(MAX_PREFETCH_WINDOWS, options.getInt("prefetch")));
+        }
+        return 0;
+    }
+
+    /**
+     * Loads the windows following and preceding {@code [start, end)} into the range cache,
+     * closest first, on the low priority prefetch lane. Gives up as soon as another
+     * foreground query started, cancelling the provider query in progress.
+     */
+    private void prefetchAdjacentWindows(final long start, final long end, final String[] calendarIDs, final EventFields fields,
+                                         int windows, final int generation) {
+        final long span = end - start;
+        if (span <= 0) {
+            return;
+        }
+
+        for (int i = 1; i <= windows; i++) {
+            final long after = end + (i - 1) * span;
+            final long before = start - i * span;
+
+            executor.executePrefetch(new CalendarExecutor.Prefetch() {
+                @Override
+                public void run(CancellationSignal signal) {
+                    if (prefetchGeneration.get() == generation) {
+                        rangeCache.prefetch(calendarIDs, fields, after, after + span, signal);
+                    }
+                    if (prefetchGeneration.get() == generation) {
+                        rangeCache.prefetch(calendarIDs, fields, before, before + span, signal);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Reads the range bounds as ISO strings or millis, falling back to now.
+     */
+    private static long[] parseRange(Dynamic startDate, Dynamic endDate) {
+        long eStartDate = System.currentTimeMillis();
+        long eEndDate = eStartDate;
 
         try {
             if (startDate.getType() == ReadableType.String) {
-                eStartDate.setTime(sdf.parse(startDate.asString()));
+                eStartDate = DateFormatter.parseUTC(startDate.asString());
             } else if (startDate.getType() == ReadableType.Number) {
-                eStartDate.setTimeInMillis((long)startDate.asDouble());
+                eStartDate = (long)startDate.asDouble();
             }
 
             if (endDate.getType() == ReadableType.String) {
-                eEndDate.setTime(sdf.parse(endDate.asString()));
+                eEndDate = DateFormatter.parseUTC(endDate.asString());
             } else if (endDate.getType() == ReadableType.Number) {
-                eEndDate.setTimeInMillis((long)endDate.asDouble());
+                eEndDate = (long)endDate.asDouble();
             }
         } catch (ParseException e) {
             e.printStackTrace();
         }
 
+        return new long[]{eStartDate, eEndDate};
+    }
+
+    private static String[] calendarIdsFromArray(ReadableArray calendars) {
+        String[] calendarIDs = new String[calendars.size()];
+        for (int i = 0; i < calendars.size(); i++) {
+            calendarIDs[i] = calendars.getString(i);
+        }
+        return calendarIDs;
+    }
+
+    private Cursor queryInstances(long eStartDate, long eEndDate, String[] calendarIDs, EventFields fields, CancellationSignal signal) {
         Cursor cursor;
         ContentResolver cr = reactContext.getContentResolver();
 
         Uri.Builder uriBuilder = CalendarContract.Instances.CONTENT_URI.buildUpon();
-        ContentUris.appendId(uriBuilder, eStartDate.getTimeInMillis());
-        ContentUris.appendId(uriBuilder, eEndDate.getTimeInMillis());
+        ContentUris.appendId(uriBuilder, eStartDate);
+        ContentUris.appendId(uriBuilder, eEndDate);
 
         Uri uri = uriBuilder.build();
 
-        String selection = "((" + CalendarContract.Instances.BEGIN + " < " + eEndDate.getTimeInMillis() + ") " +
-                "AND (" + CalendarContract.Instances.END + " >= " + eStartDate.getTimeInMillis() + ") " +
-                "AND (" + CalendarContract.Instances.VISIBLE + " = 1) " +
-                "AND (" + CalendarContract.Instances.STATUS + " IS NOT " + CalendarContract.Events.STATUS_CANCELED + ") ";
+        String selection = INSTANCES_IN_RANGE_SELECTION.build(calendarIDs.length);
+        String[] selectionArgs = SelectionBuilder.args(new String[]{
+                Long.toString(eEndDate),
+                Long.toString(eStartDate)
+        }, calendarIDs);
 
-        if (calendars.size() > 0) {
-            String calendarQuery = "AND (";
-            for (int i = 0; i < calendars.size(); i++) {
-                calendarQuery += CalendarContract.Instances.CALENDAR_ID + " = " + calendars.getString(i);
-                if (i != calendars.size() - 1) {
-                    calendarQuery += " OR ";
-                }
-            }
-            calendarQuery += ")";
-            selection += calendarQuery;
-        }
+        cursor = query(cr, uri, fields.projection(
+                CalendarContract.Instances.EVENT_ID,
+                CalendarContract.Instances.BEGIN,
+                CalendarContract.Instances.END
+        ), selection, selectionArgs, null, signal);
 
-        selection += ")";
+        return cursor;
+    }
 
-        cursor = cr.query(uri, new String[]{
-                CalendarContract.Instances.EVENT_ID,
-                CalendarContract.Instances.TITLE,
-                CalendarContract.Instances.DESCRIPTION,
+    /**
+     * Returns the busy and tentative intervals of the range, merged and flattened as
+     * {@code [start0, end0, start1, end1, ...]} millis. Only the four columns needed
+     * are read and no event is serialized. All-day instances are read as local days.
+     */
+    private WritableNativeMap findFreeBusy(long startDate, long endDate, String[] calendarIDs, long granularity) {
+        ContentResolver cr = reactContext.getContentResolver();
+
+        Uri.Builder uriBuilder = CalendarContract.Instances.CONTENT_URI.buildUpon();
+        ContentUris.appendId(uriBuilder, startDate);
+        ContentUris.appendId(uriBuilder, endDate);
+
+        Cursor cursor = query(cr, uriBuilder.build(), new String[]{
                 CalendarContract.Instances.BEGIN,
                 CalendarContract.Instances.END,
-                CalendarContract.Instances.ALL_DAY,
-                CalendarContract.Instances.EVENT_LOCATION,
-                CalendarContract.Instances.RRULE,
-                CalendarContract.Instances.CALENDAR_ID,
                 CalendarContract.Instances.AVAILABILITY,
-                CalendarContract.Instances.HAS_ALARM,
-                CalendarContract.Instances.ORIGINAL_ID,
-                CalendarContract.Instances.EVENT_ID,
-                CalendarContract.Instances.DURATION,
-                CalendarContract.Instances.ORIGINAL_SYNC_ID,
-                CalendarContract.Instances.ORIGINAL_INSTANCE_TIME
-        }, selection, null, null);
+                CalendarContract.Instances.ALL_DAY
+        }, INSTANCES_IN_RANGE_SELECTION.build(calendarIDs.length), SelectionBuilder.args(new String[]{
+                Long.toString(endDate),
+                Long.toString(startDate)
+        }, calendarIDs), null);
+
+        int count = cursor != null ? cursor.getCount() : 0;
+        long[] busyStarts = new long[count];
+        long[] busyEnds = new long[count];
+        long[] tentativeStarts = new long[count];
+        long[] tentativeEnds = new long[count];
+        int busyCount = 0;
+        int tentativeCount = 0;
+
+        if (cursor != null) {
+            TimeZone zone = TimeZone.getDefault();
+
+            while (cursor.moveToNext()) {
+                int availability = cursor.isNull(2) ? CalendarContract.Events.AVAILABILITY_BUSY : cursor.getInt(2);
+                if (availability == CalendarContract.Events.AVAILABILITY_FREE) {
+                    continue;
+                }
 
+                long begin = cursor.getLong(0);
+                long end = cursor.isNull(1) ? begin : cursor.getLong(1);
+                if (!cursor.isNull(3) && cursor.getInt(3) != 0) {
+                    // all-day bounds are UTC midnights standing for local days
+                    begin = DateFormatter.fromWallClock(begin, zone);
+                    end = DateFormatter.fromWallClock(end, zone);
+                }
+
+                if (availability == CalendarContract.Events.AVAILABILITY_TENTATIVE) {
+                    tentativeStarts[tentativeCount] = begin;
+                    tentativeEnds[tentativeCount++] = end;
+                } else {
+                    busyStarts[busyCount] = begin;
+                    busyEnds[busyCount++] = end;
+                }
+            }
+            cursor.close();
+        }
+
+        WritableNativeMap result = new WritableNativeMap();
+        result.putArray("busy", serializeIntervals(FreeBusy.merge(busyStarts, busyEnds, busyCount, startDate, endDate, granularity)));
+        result.putArray("tentative", serializeIntervals(FreeBusy.merge(tentativeStarts, tentativeEnds, tentativeCount, startDate, endDate, granularity)));
+        return result;
+    }
 
-        return serializeEvents(cursor, isLite);
+    private static WritableNativeArray serializeIntervals(long[] intervals) {
+        WritableNativeArray results = new WritableNativeArray();
+        for (long bound : intervals) {
+            results.pushDouble(bound);
+        }
+        return results;
     }
 
     private WritableNativeMap findEventById(String eventID) {
+        return findEventById(eventID, EventFields.ALL, null);
+    }
+
+    private static EventFields eventFieldsFromOptions(ReadableMap options, boolean isLite) {
+        ReadableArray fields = options != null && options.hasKey("fields") && !options.isNull("fields") ? options.getArray("fields") : null;
+        return EventFields.of(fields, isLite);
+    }
+
+    private WritableNativeMap findEventById(String eventID, EventFields fields, CancellationSignal signal) {
 
         WritableNativeMap result;
         Cursor cursor = null;
@@ -406,26 +938,18 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
 
         String selection = "((" + CalendarContract.Events.DELETED + " != 1))";
 
-        cursor = cr.query(uri, new String[]{
+        cursor = query(cr, uri, fields.projection(
                 CalendarContract.Events._ID,
-                CalendarContract.Events.TITLE,
-                CalendarContract.Events.DESCRIPTION,
                 CalendarContract.Events.DTSTART,
-                CalendarContract.Events.DTEND,
-                CalendarContract.Events.ALL_DAY,
-                CalendarContract.Events.EVENT_LOCATION,
-                CalendarContract.Events.RRULE,
-                CalendarContract.Events.CALENDAR_ID,
-                CalendarContract.Events.AVAILABILITY,
-                CalendarContract.Events.HAS_ALARM,
-                CalendarContract.Instances.DURATION,
-                CalendarContract.Events.ORIGINAL_INSTANCE_TIME,
-                CalendarContract.Events.ORIGINAL_ID,
-        }, selection, null, null);
+                CalendarContract.Events.DTEND
+        ), selection, null, null, signal);
 
         if (cursor.getCount() > 0) {
+            EventColumns columns = EventColumns.of(cursor);
+            EventRelations relations = findEventRelations(cursor, columns, fields, 1);
+            throwIfCanceled(signal);
             cursor.moveToFirst();
-            result = serializeEvent(cursor, false);
+            result = serializeEvent(cursor, columns, fields, relations);
         } else {
             result = null;
         }
@@ -435,7 +959,7 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
         return result;
     }
 
-    private WritableNativeMap findEventInstanceById(String eventID) {
+    private WritableNativeMap findEventInstanceById(String eventID, CancellationSignal signal) {
 
         WritableNativeMap result;
         Cursor cursor;
@@ -446,27 +970,21 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
         ContentUris.appendId(uriBuilder, Long.MAX_VALUE);
         Uri uri = uriBuilder.build();
 
-        String selection = "(Instances._ID = " + eventID + ")";
+        String selection = INSTANCE_BY_ID_SELECTION.build(0);
 
-        cursor = cr.query(uri, new String[]{
+        EventFields fields = EventFields.ALL;
+        cursor = query(cr, uri, fields.projection(
                 CalendarContract.Instances._ID,
-                CalendarContract.Instances.TITLE,
-                CalendarContract.Instances.DESCRIPTION,
                 CalendarContract.Instances.BEGIN,
-                CalendarContract.Instances.END,
-                CalendarContract.Instances.ALL_DAY,
-                CalendarContract.Instances.EVENT_LOCATION,
-                CalendarContract.Instances.RRULE,
-                CalendarContract.Instances.CALENDAR_ID,
-                CalendarContract.Instances.AVAILABILITY,
-                CalendarContract.Instances.HAS_ALARM,
-                CalendarContract.Instances.ORIGINAL_ID,
-                CalendarContract.Instances.EVENT_ID,
-                CalendarContract.Instances.DURATION
-        }, selection, null, null);
+                CalendarContract.Instances.END
+        ), selection, new String[]{eventID}, null, signal);
 
-        if (cursor != null && cursor.moveToFirst()) {
-            result = serializeEvent(cursor, false);
+        if (cursor != null && cursor.getCount() > 0) {
+            EventColumns columns = EventColumns.of(cursor);
+            EventRelations relations = findEventRelations(cursor, columns, fields, 1);
+            throwIfCanceled(signal);
+            cursor.moveToFirst();
+            result = serializeEvent(cursor, columns, fields, relations);
             cursor.close();
         } else {
             result = null;
@@ -475,17 +993,16 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
         return result;
     }
 
-    private int addEvent(String title, ReadableMap details, ReadableMap options) throws ParseException {
-        String dateFormat = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
-        SimpleDateFormat sdf = new SimpleDateFormat(dateFormat);
+    private TimeZone dateZoneForEvent(ReadableMap details) {
         boolean skipTimezone = false;
         if(details.hasKey("skipAndroidTimezone") && details.getBoolean("skipAndroidTimezone")){
             skipTimezone = true;
         }
-        if(!skipTimezone){
-            sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
-        }
-        ContentResolver cr = reactContext.getContentResolver();
+        return skipTimezone ? TimeZone.getDefault() : DateFormatter.UTC;
+    }
+
+    private ContentValues eventValuesFromDetails(String title, ReadableMap details) throws ParseException {
+        TimeZone dateZone = dateZoneForEvent(details);
         ContentValues eventValues = new ContentValues();
 
         if (title != null) {
@@ -501,13 +1018,11 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
         }
 
         if (details.hasKey("startDate")) {
-            Calendar startCal = Calendar.getInstance();
             ReadableType type = details.getType("startDate");
 
             try {
                 if (type == ReadableType.String) {
-                    startCal.setTime(sdf.parse(details.getString("startDate")));
-                    eventValues.put(CalendarContract.Events.DTSTART, startCal.getTimeInMillis());
+                    eventValues.put(CalendarContract.Events.DTSTART, DateFormatter.parse(details.getString("startDate"), dateZone));
                 } else if (type == ReadableType.Number) {
                     eventValues.put(CalendarContract.Events.DTSTART, (long)details.getDouble("startDate"));
                 }
@@ -518,13 +1033,11 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
         }
 
         if (details.hasKey("endDate")) {
-            Calendar endCal = Calendar.getInstance();
             ReadableType type = details.getType("endDate");
 
             try {
                 if (type == ReadableType.String) {
-                    endCal.setTime(sdf.parse(details.getString("endDate")));
-                    eventValues.put(CalendarContract.Events.DTEND, endCal.getTimeInMillis());
+                    eventValues.put(CalendarContract.Events.DTEND, DateFormatter.parse(details.getString("endDate"), dateZone));
                 } else if (type == ReadableType.Number) {
                     eventValues.put(CalendarContract.Events.DTEND, (long)details.getDouble("endDate"));
                 }
@@ -576,14 +1089,11 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
 
                 if (recurrenceRule.hasKey("endDate")) {
                     ReadableType type = recurrenceRule.getType("endDate");
-                    SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd'T'HHmmss'Z'");
 
                     if (type == ReadableType.String) {
-                        endDate = format.format(sdf.parse(recurrenceRule.getString("endDate")));
+                        endDate = DateFormatter.formatRRuleDate(DateFormatter.parse(recurrenceRule.getString("endDate"), dateZone), TimeZone.getDefault());
                     } else if (type == ReadableType.Number) {
-                        Calendar calendar = Calendar.getInstance();
-                        calendar.setTimeInMillis((long)recurrenceRule.getDouble("endDate"));
-                        endDate = format.format(calendar.getTime());
+                        endDate = DateFormatter.formatRRuleDate((long)recurrenceRule.getDouble("endDate"), TimeZone.getDefault());
                     }
                 }
 
@@ -633,6 +1143,14 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
             eventValues.put(CalendarContract.Events.AVAILABILITY, availabilityConstantMatchingString(details.getString("availability")));
         }
 
+        return eventValues;
+    }
+
+    private int addEvent(String title, ReadableMap details, ReadableMap options) throws ParseException {
+        TimeZone dateZone = dateZoneForEvent(details);
+        ContentResolver cr = reactContext.getContentResolver();
+        ContentValues eventValues = eventValuesFromDetails(title, details);
+
         if (details.hasKey("id")) {
             int eventID = Integer.parseInt(details.getString("id"));
             WritableMap eventInstance = findEventById(details.getString("id"));
@@ -646,16 +1164,14 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
                         syncCalendar(cr, eventInstance.getMap("calendar").getString("id"));
                         updateUri = eventUriAsSyncAdapter(updateUri, eventCalendar.getString("source"), eventCalendar.getString("type"));
                     }
-                    cr.update(updateUri, eventValues, null, null);
+                    update(cr, updateUri, eventValues, null, null);
 
                 } else {
-                    Calendar exceptionStart = Calendar.getInstance();
                     ReadableType type = options.getType("exceptionDate");
 
                     try {
                         if (type == ReadableType.String) {
-                            exceptionStart.setTime(sdf.parse(options.getString("exceptionDate")));
-                            eventValues.put(CalendarContract.Events.ORIGINAL_INSTANCE_TIME, exceptionStart.getTimeInMillis());
+                            eventValues.put(CalendarContract.Events.ORIGINAL_INSTANCE_TIME, DateFormatter.parse(options.getString("exceptionDate"), dateZone));
                         } else if (type == ReadableType.Number) {
                             eventValues.put(CalendarContract.Events.ORIGINAL_INSTANCE_TIME, (long) options.getDouble("exceptionDate"));
                         }
@@ -672,7 +1188,7 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
                     }
 
                     try {
-                        Uri eventUri = cr.insert(exceptionUri, eventValues);
+                        Uri eventUri = insert(cr, exceptionUri, eventValues);
                         if (eventUri != null) {
                             eventID = Integer.parseInt(eventUri.getLastPathSegment());
                         }
@@ -682,13 +1198,7 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
                 }
             }
 
-            if (details.hasKey("alarms")) {
-                createRemindersForEvent(cr, Integer.parseInt(details.getString("id")), details.getArray("alarms"));
-            }
-
-            if (details.hasKey("attendees")) {
-                createAttendeesForEvent(cr, Integer.parseInt(details.getString("id")), details.getArray("attendees"));
-            }
+            saveEventChildren(cr, details.getString("id"), details, true);
 
             return eventID;
 
@@ -717,20 +1227,13 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
                 createEventUri = eventUriAsSyncAdapter(CalendarContract.Events.CONTENT_URI, calendar.getString("source"), calendar.getString("type"));
             }
 
-            Uri eventUri = cr.insert(createEventUri, eventValues);
+            Uri eventUri = insert(cr, createEventUri, eventValues);
 
             if (eventUri != null) {
                 String rowId = eventUri.getLastPathSegment();
                 if (rowId != null) {
                     eventID = Integer.parseInt(rowId);
-
-                    if (details.hasKey("alarms")) {
-                        createRemindersForEvent(cr, eventID, details.getArray("alarms"));
-                    }
-
-                    if (details.hasKey("attendees")) {
-                        createAttendeesForEvent(cr, eventID, details.getArray("attendees"));
-                    }
+                    saveEventChildren(cr, rowId, details, false);
                     return eventID;
                 }
 
@@ -745,8 +1248,15 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
 
         try {
             ContentResolver cr = reactContext.getContentResolver();
-            WritableMap eventInstance = findEventById(eventID);
-            ReadableMap eventCalendar = eventInstance.getMap("calendar");
+            // only sync adapter URIs need the calendar account, and then its calendar row is enough
+            ReadableMap eventCalendar = null;
+            if (options.hasKey("sync") && options.getBoolean("sync")) {
+                String calendarID = findCalendarIdsByEventIds(Collections.singletonList(eventID)).get(eventID);
+                eventCalendar = calendarID != null ? findCalendarById(calendarID) : null;
+                if (eventCalendar == null) {
+                    return false;
+                }
+            }
 
             if (!options.hasKey("exceptionDate")) {
                 Uri uri = ContentUris.withAppendedId(CalendarContract.Events.CONTENT_URI, (long) Integer.parseInt(eventID));
@@ -755,37 +1265,18 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
                     syncCalendar(cr, eventCalendar.getString("id"));
                     uri = eventUriAsSyncAdapter(uri, eventCalendar.getString("source"), eventCalendar.getString("type"));
                 }
-                rows = cr.delete(uri, null, null);
+                rows = delete(cr, uri, null, null);
 
             } else {
-                ContentValues eventValues = new ContentValues();
-                SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-                sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
+                ContentValues eventValues = cancelledExceptionValues(options);
 
-                Calendar exceptionStart = Calendar.getInstance();
-                ReadableType type = options.getType("exceptionDate");
-
-                try {
-                    if (type == ReadableType.String) {
-                        exceptionStart.setTime(sdf.parse(options.getString("exceptionDate")));
-                        eventValues.put(CalendarContract.Events.ORIGINAL_INSTANCE_TIME, exceptionStart.getTimeInMillis());
-                    } else if (type == ReadableType.Number) {
-                        eventValues.put(CalendarContract.Events.ORIGINAL_INSTANCE_TIME, (long) options.getDouble("exceptionDate"));
-                    }
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                    throw e;
-                }
-
-                eventValues.put(CalendarContract.Events.STATUS, CalendarContract.Events.STATUS_CANCELED);
-
-                Uri uri = Uri.withAppendedPath(CalendarContract.Events.CONTENT_EXCEPTION_URI, eventID);
+                Uri uri = Uri.withAppendedPath(CalendarContract.Events.CONTENT_EXCEPTION_URI, eventID);
 
                 if (options.hasKey("sync") && options.getBoolean("sync")) {
                     uri = eventUriAsSyncAdapter(uri, eventCalendar.getString("source"), eventCalendar.getString("type"));
                 }
 
-                Uri exceptionUri = cr.insert(uri, eventValues);
+                Uri exceptionUri = insert(cr, uri, eventValues);
                 if (exceptionUri != null) {
                     rows = 1;
                 }
@@ -799,6 +1290,477 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
         return rows > 0;
     }
 
+    private static ContentValues cancelledExceptionValues(ReadableMap options) throws ParseException {
+        ContentValues eventValues = new ContentValues();
+        ReadableType type = options.getType("exceptionDate");
+
+        try {
+            if (type == ReadableType.String) {
+                eventValues.put(CalendarContract.Events.ORIGINAL_INSTANCE_TIME, DateFormatter.parseUTC(options.getString("exceptionDate")));
+            } else if (type == ReadableType.Number) {
+                eventValues.put(CalendarContract.Events.ORIGINAL_INSTANCE_TIME, (long) options.getDouble("exceptionDate"));
+            }
+        } catch (ParseException e) {
+            e.printStackTrace();
+            throw e;
+        }
+
+        eventValues.put(CalendarContract.Events.STATUS, CalendarContract.Events.STATUS_CANCELED);
+        return eventValues;
+    }
+
+    //region Batch Events
+    private static final int DEFAULT_BATCH_CHUNK_SIZE = 50;
+    /** The provider rejects transactions of 500 operations or more without yield points. */
+    private static final int MAX_BATCH_OPERATIONS = 499;
+
+    /**
+     * Saves events in chunks of {@code chunkSize}, each chunk being a single provider
+     * transaction, so a chunk is either saved entirely or not at all. Reminders and
+     * attendees of new events refer to them through back references, so a chunk costs
+     * one IPC whatever its size. A chunk whose operations would exceed what the provider
+     * accepts in one transaction is split in as many transactions as needed, between
+     * events. Returns one result per event, in order, holding either the saved event ID
+     * or an error.
+     */
+    private WritableNativeArray addEvents(ReadableArray events, int chunkSize) {
+        ContentResolver cr = reactContext.getContentResolver();
+        WritableNativeArray results = new WritableNativeArray();
+
+        if (chunkSize <= 0) {
+            chunkSize = DEFAULT_BATCH_CHUNK_SIZE;
+        }
+
+        for (int chunkStart = 0; chunkStart < events.size(); chunkStart += chunkSize) {
+            int chunkEnd = Math.min(events.size(), chunkStart + chunkSize);
+            int itemCount = chunkEnd - chunkStart;
+
+            ArrayList<ContentProviderOperation> operations = new ArrayList<>();
+            int[] eventOperations = new int[itemCount];
+            String[] eventIDs = new String[itemCount];
+            String[] errors = new String[itemCount];
+            HashSet<String> syncedCalendarIDs = new HashSet<>();
+            ArrayList<String> updatedEventIDs = updatedEventIds(events, chunkStart, chunkEnd);
+            HashMap<String, String> existingCalendarIDs = findCalendarIdsByEventIds(updatedEventIDs);
+            HashMap<String, ArrayList<ContentValues>> existingReminders = findReminderRowsByEventIds(updatedEventIDs);
+            HashMap<String, ArrayList<ContentValues>> existingAttendees = findAttendeeRowsByEventIds(updatedEventIDs);
+            int batchStart = 0;
+
+            for (int i = 0; i < itemCount; i++) {
+                ReadableMap item = events.getMap(chunkStart + i);
+                ArrayList<ContentProviderOperation> itemOperations;
+
+                try {
+                    itemOperations = eventSaveOperations(cr, item, operations.size(), i, eventOperations, eventIDs,
+                            existingCalendarIDs, existingReminders, existingAttendees, syncedCalendarIDs);
+                    if (itemOperations != null && !operations.isEmpty() && operations.size() + itemOperations.size() > MAX_BATCH_OPERATIONS) {
+                        applySaveOperations(cr, operations, batchStart, i, eventOperations, eventIDs, errors);
+                        batchStart = i;
+                        // back references are indexes in the batch, which now starts with this event
+                        itemOperations = eventSaveOperations(cr, item, 0, i, eventOperations, eventIDs,
+                                existingCalendarIDs, existingReminders, existingAttendees, syncedCalendarIDs);
+                    }
+                } catch (Exception e) {
+                    eventOperations[i] = -1;
+                    errors[i] = e.getMessage() != null ? e.getMessage() : "Unable to save event";
+                    continue;
+                }
+
+                if (itemOperations == null) {
+                    errors[i] = "Unable to find event " + item.getMap("details").getString("id");
+                    continue;
+                }
+                // only added once every operation of the event was built, so a failed event writes nothing
+                operations.addAll(itemOperations);
+            }
+            applySaveOperations(cr, operations, batchStart, itemCount, eventOperations, eventIDs, errors);
+
+            for (int i = 0; i < itemCount; i++) {
+                WritableNativeMap result = new WritableNativeMap();
+                if (errors[i] != null) {
+                    result.putNull("id");
+                    result.putString("error", errors[i]);
+                } else {
+                    result.putString("id", eventIDs[i]);
+                }
+                results.pushMap(result);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Returns the operations saving the event of a saveEvents item, its own operation being
+     * at {@code operationIndex} in the batch, or null when it updates an unknown event. Sets
+     * the item's event ID when it is known upfront, or the index of the insert giving it.
+     */
+    private ArrayList<ContentProviderOperation> eventSaveOperations(ContentResolver cr, ReadableMap item, int operationIndex, int itemIndex,
+                                                                   int[] eventOperations, String[] eventIDs,
+                                                                   HashMap<String, String> existingCalendarIDs,
+                                                                   HashMap<String, ArrayList<ContentValues>> existingReminders,
+                                                                   HashMap<String, ArrayList<ContentValues>> existingAttendees,
+                                                                   HashSet<String> syncedCalendarIDs) throws Exception {
+        String title = item.hasKey("title") ? item.getString("title") : null;
+        ReadableMap details = item.getMap("details");
+        ReadableMap options = item.hasKey("options") ? item.getMap("options") : null;
+        boolean sync = options != null && options.hasKey("sync") && options.getBoolean("sync");
+        ContentValues eventValues = eventValuesFromDetails(title, details);
+        ArrayList<ContentProviderOperation> operations = new ArrayList<>();
+        ContentProviderOperation.Builder builder;
+        String childEventID = null;
+        eventOperations[itemIndex] = -1;
+
+        if (details.hasKey("id")) {
+            String eventID = details.getString("id");
+            String calendarID = existingCalendarIDs.get(eventID);
+            if (calendarID == null) {
+                return null;
+            }
+            WritableNativeMap calendar = sync ? findCalendarById(calendarID) : null;
+
+            if (options == null || !options.hasKey("exceptionDate")) {
+                Uri updateUri = ContentUris.withAppendedId(CalendarContract.Events.CONTENT_URI, Long.parseLong(eventID));
+                if (calendar != null) {
+                    updateUri = eventUriAsSyncAdapter(updateUri, calendar.getString("source"), calendar.getString("type"));
+                }
+                builder = ContentProviderOperation.newUpdate(updateUri);
+                eventIDs[itemIndex] = eventID;
+            } else {
+                ReadableType type = options.getType("exceptionDate");
+                if (type == ReadableType.String) {
+                    eventValues.put(CalendarContract.Events.ORIGINAL_INSTANCE_TIME, DateFormatter.parse(options.getString("exceptionDate"), dateZoneForEvent(details)));
+                } else if (type == ReadableType.Number) {
+                    eventValues.put(CalendarContract.Events.ORIGINAL_INSTANCE_TIME, (long) options.getDouble("exceptionDate"));
+                }
+
+                Uri exceptionUri = Uri.withAppendedPath(CalendarContract.Events.CONTENT_EXCEPTION_URI, eventID);
+                if (calendar != null) {
+                    exceptionUri = eventUriAsSyncAdapter(exceptionUri, calendar.getString("source"), calendar.getString("type"));
+                }
+                builder = ContentProviderOperation.newInsert(exceptionUri);
+                eventOperations[itemIndex] = operationIndex;
+            }
+
+            // like saveEvent, reminders and attendees stay on the original event
+            childEventID = eventID;
+            if (calendar != null && syncedCalendarIDs.add(calendarID)) {
+                syncCalendar(cr, calendarID);
+            }
+        } else {
+            WritableNativeMap calendar = findCalendarById(details.hasKey("calendarId") ? details.getString("calendarId") : "1");
+            String calendarID = calendar != null ? calendar.getString("id") : "1";
+            eventValues.put(CalendarContract.Events.CALENDAR_ID, Integer.parseInt(calendarID));
+
+            Uri createEventUri = CalendarContract.Events.CONTENT_URI;
+            if (sync && calendar != null) {
+                if (syncedCalendarIDs.add(calendarID)) {
+                    syncCalendar(cr, calendarID);
+                }
+                createEventUri = eventUriAsSyncAdapter(createEventUri, calendar.getString("source"), calendar.getString("type"));
+            }
+            builder = ContentProviderOperation.newInsert(createEventUri);
+            eventOperations[itemIndex] = operationIndex;
+        }
+
+        // no yield point, which would let the provider commit part of the transaction
+        operations.add(builder.withValues(eventValues).build());
+
+        if (details.hasKey("alarms")) {
+            appendReminderOperations(operations, childEventID, operationIndex, details.getArray("alarms"), existingReminders.get(childEventID));
+        }
+        if (details.hasKey("attendees")) {
+            appendAttendeeOperations(operations, childEventID, operationIndex, details.getArray("attendees"), existingAttendees.get(childEventID));
+        }
+        return operations;
+    }
+
+    /**
+     * Applies the operations of the items {@code [from, to)} as one transaction, then reads
+     * the IDs of the events they inserted. When the transaction fails, every item of it
+     * without an error of its own gets the transaction's.
+     */
+    private void applySaveOperations(ContentResolver cr, ArrayList<ContentProviderOperation> operations, int from, int to,
+                                     int[] eventOperations, String[] eventIDs, String[] errors) {
+        if (operations.isEmpty()) {
+            return;
+        }
+
+        ContentProviderResult[] operationResults = null;
+        String batchError = null;
+        try {
+            operationResults = applyBatch(cr, CalendarContract.AUTHORITY, operations);
+        } catch (Exception e) {
+            Log.d(this.getName(), "Batch save error", e);
+            batchError = e.getMessage() != null ? e.getMessage() : "Unable to save events";
+        }
+        operations.clear();
+
+        for (int i = from; i < to; i++) {
+            if (errors[i] != null) {
+                continue;
+            }
+            if (batchError != null) {
+                errors[i] = batchError;
+                eventIDs[i] = null;
+            } else if (eventOperations[i] != -1) {
+                Uri eventUri = operationResults[eventOperations[i]].uri;
+                eventIDs[i] = eventUri != null ? eventUri.getLastPathSegment() : null;
+                if (eventIDs[i] == null) {
+                    errors[i] = "Unable to save event";
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes events with the same options as {@link #removeEvent}. Plain deletes are done
+     * with one {@code _ID IN (...)} selection per chunk. Sync adapter deletes and exception
+     * inserts need the calendar accounts, which are resolved once per calendar, and are
+     * applied as one batch per chunk. Returns the number of removed events.
+     */
+    private int removeEvents(ReadableArray eventIDs, ReadableMap options) throws Exception {
+        ContentResolver cr = reactContext.getContentResolver();
+        boolean sync = options.hasKey("sync") && options.getBoolean("sync");
+        boolean exception = options.hasKey("exceptionDate");
+        int rows = 0;
+
+        LinkedHashSet<String> ids = new LinkedHashSet<>();
+        for (int i = 0; i < eventIDs.size(); i++) {
+            ids.add(eventIDs.getString(i));
+        }
+
+        if (!sync && !exception) {
+            for (String[] chunk : chunkSelectionArgs(ids)) {
+                rows += delete(cr, CalendarContract.Events.CONTENT_URI, inSelection(CalendarContract.Events._ID, chunk.length), chunk);
+            }
+            return rows;
+        }
+
+        ContentValues exceptionValues = exception ? cancelledExceptionValues(options) : null;
+        HashMap<String, ReadableMap> calendars = new HashMap<>();
+
+        for (String[] chunk : chunkSelectionArgs(ids)) {
+            HashMap<String, String> calendarIDs = findCalendarIdsByEventIds(Arrays.asList(chunk));
+            // event IDs to delete, grouped by the sync adapter URI of their calendar
+            LinkedHashMap<Uri, ArrayList<String>> deletes = new LinkedHashMap<>();
+            ArrayList<ContentProviderOperation> operations = new ArrayList<>();
+
+            for (String eventID : chunk) {
+                String calendarID = calendarIDs.get(eventID);
+                if (calendarID == null) {
+                    continue;
+                }
+
+                ReadableMap calendar = null;
+                if (sync) {
+                    if (!calendars.containsKey(calendarID)) {
+                        calendar = findCalendarById(calendarID);
+                        calendars.put(calendarID, calendar);
+                        if (calendar != null && !exception) {
+                            syncCalendar(cr, calendarID);
+                        }
+                    }
+                    calendar = calendars.get(calendarID);
+                    if (calendar == null) {
+                        continue;
+                    }
+                }
+
+                if (exception) {
+                    Uri uri = Uri.withAppendedPath(CalendarContract.Events.CONTENT_EXCEPTION_URI, eventID);
+                    if (calendar != null) {
+                        uri = eventUriAsSyncAdapter(uri, calendar.getString("source"), calendar.getString("type"));
+                    }
+                    // exceptions are independent, yield points between them keep a chunk of up to
+                    // MAX_SELECTION_ARGS inserts under the provider's limit of operations per yield
+                    operations.add(ContentProviderOperation.newInsert(uri)
+                            .withValues(exceptionValues)
+                            .withYieldAllowed(!operations.isEmpty())
+                            .build());
+                } else {
+                    Uri uri = eventUriAsSyncAdapter(CalendarContract.Events.CONTENT_URI, calendar.getString("source"), calendar.getString("type"));
+                    ArrayList<String> calendarEvents = deletes.get(uri);
+                    if (calendarEvents == null) {
+                        calendarEvents = new ArrayList<>();
+                        deletes.put(uri, calendarEvents);
+                    }
+                    calendarEvents.add(eventID);
+                }
+            }
+
+            for (Map.Entry<Uri, ArrayList<String>> delete : deletes.entrySet()) {
+                String[] args = delete.getValue().toArray(new String[0]);
+                operations.add(ContentProviderOperation.newDelete(delete.getKey())
+                        .withSelection(inSelection(CalendarContract.Events._ID, args.length), args)
+                        .build());
+            }
+
+            if (!operations.isEmpty()) {
+                for (ContentProviderResult result : applyBatch(cr, CalendarContract.AUTHORITY, operations)) {
+                    if (result.uri != null) {
+                        rows++;
+                    } else if (result.count != null) {
+                        rows += result.count;
+                    }
+                }
+            }
+        }
+
+        return rows;
+    }
+
+    private static ArrayList<String> updatedEventIds(ReadableArray events, int start, int end) {
+        ArrayList<String> eventIDs = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            ReadableMap item = events.getMap(i);
+            if (item.hasKey("details")) {
+                ReadableMap details = item.getMap("details");
+                if (details.hasKey("id")) {
+                    eventIDs.add(details.getString("id"));
+                }
+            }
+        }
+        return eventIDs;
+    }
+
+    private HashMap<String, String> findCalendarIdsByEventIds(Collection<String> eventIDs) {
+        HashMap<String, String> results = new HashMap<>();
+        ContentResolver cr = reactContext.getContentResolver();
+
+        for (String[] ids : chunkSelectionArgs(eventIDs)) {
+            Cursor cursor = query(cr, CalendarContract.Events.CONTENT_URI, new String[]{
+                    CalendarContract.Events._ID,
+                    CalendarContract.Events.CALENDAR_ID
+            }, "(" + CalendarContract.Events.DELETED + " != 1) AND " + inSelection(CalendarContract.Events._ID, ids.length), ids, null);
+
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    results.put(cursor.getString(0), cursor.getString(1));
+                }
+                cursor.close();
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Brings the reminders and attendees of a saved event in line with its details,
+     * writing only the rows that changed, in a single batch. New events have no rows to read.
+     */
+    private void saveEventChildren(ContentResolver cr, String eventID, ReadableMap details, boolean existingEvent) {
+        if (!details.hasKey("alarms") && !details.hasKey("attendees")) {
+            return;
+        }
+
+        List<String> eventIDs = existingEvent ? Collections.singletonList(eventID) : Collections.<String>emptyList();
+        ArrayList<ContentProviderOperation> operations = new ArrayList<>();
+
+        if (details.hasKey("alarms")) {
+            appendReminderOperations(operations, eventID, -1, details.getArray("alarms"), findReminderRowsByEventIds(eventIDs).get(eventID));
+        }
+        if (details.hasKey("attendees")) {
+            appendAttendeeOperations(operations, eventID, -1, details.getArray("attendees"), findAttendeeRowsByEventIds(eventIDs).get(eventID));
+        }
+
+        if (!operations.isEmpty()) {
+            try {
+                applyBatch(cr, CalendarContract.AUTHORITY, operations);
+            } catch (RemoteException | OperationApplicationException e) {
+                Log.d(this.getName(), "Event reminders and attendees error", e);
+            }
+        }
+    }
+
+    /**
+     * Reads child rows as strings, grouped by event ID. The event ID must be projected second, after {@code _ID}.
+     */
+    private HashMap<String, ArrayList<ContentValues>> findChildRowsByEventIds(Uri uri, String[] projection, Collection<String> eventIDs) {
+        HashMap<String, ArrayList<ContentValues>> results = new HashMap<>();
+        ContentResolver cr = reactContext.getContentResolver();
+
+        for (String[] ids : chunkSelectionArgs(eventIDs)) {
+            Cursor cursor = query(cr, uri, projection, inSelection(projection[1], ids.length), ids, null);
+
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    ContentValues row = new ContentValues();
+                    for (int i = 0; i < projection.length; i++) {
+                        row.put(projection[i], cursor.getString(i));
+                    }
+
+                    ArrayList<ContentValues> rows = results.get(cursor.getString(1));
+                    if (rows == null) {
+                        rows = new ArrayList<>();
+                        results.put(cursor.getString(1), rows);
+                    }
+                    rows.add(row);
+                }
+                cursor.close();
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Updates the reminders of an existing event to match {@code reminders}, or adds the reminders
+     * of the event inserted by the operation at {@code eventOperation} when {@code eventID} is null.
+     */
+    private static void appendReminderOperations(ArrayList<ContentProviderOperation> operations, String eventID, int eventOperation,
+                                                 ReadableArray reminders, List<ContentValues> existing) {
+        ArrayList<ContentValues> wanted = new ArrayList<>();
+        for (int i = 0; i < reminders.size(); i++) {
+            ContentValues reminderValues = reminderValues(reminders.getMap(i));
+            if (reminderValues != null) {
+                wanted.add(reminderValues);
+            }
+        }
+
+        appendChildOperations(operations, CalendarContract.Reminders.CONTENT_URI, CalendarContract.Reminders.EVENT_ID, REMINDER_KEY_COLUMNS,
+                eventID, eventOperation, wanted, existing);
+    }
+
+    /**
+     * Updates the attendees of an existing event to match {@code attendees}, or adds the attendees
+     * of the event inserted by the operation at {@code eventOperation} when {@code eventID} is null.
+     */
+    private static void appendAttendeeOperations(ArrayList<ContentProviderOperation> operations, String eventID, int eventOperation,
+                                                 ReadableArray attendees, List<ContentValues> existing) {
+        ArrayList<ContentValues> wanted = new ArrayList<>();
+        for (int i = 0; i < attendees.size(); i++) {
+            ContentValues attendeeValues = attendeeValues(attendees.getMap(i));
+            if (attendeeValues != null) {
+                wanted.add(attendeeValues);
+            }
+        }
+
+        appendChildOperations(operations, CalendarContract.Attendees.CONTENT_URI, CalendarContract.Attendees.EVENT_ID, ATTENDEE_KEY_COLUMNS,
+                eventID, eventOperation, wanted, existing);
+    }
+
+    private static void appendChildOperations(ArrayList<ContentProviderOperation> operations, Uri uri, String eventColumn, String[] keyColumns,
+                                              String eventID, int eventOperation, List<ContentValues> wanted, List<ContentValues> existing) {
+        if (eventID == null) {
+            for (ContentValues values : wanted) {
+                operations.add(ContentProviderOperation.newInsert(uri)
+                        .withValues(values)
+                        .withValueBackReference(eventColumn, eventOperation)
+                        .build());
+            }
+            return;
+        }
+
+        for (ContentValues values : wanted) {
+            values.put(eventColumn, Long.parseLong(eventID));
+        }
+        ChildRowDiff.appendOperations(operations, uri, keyColumns,
+                existing != null ? existing : Collections.<ContentValues>emptyList(), wanted);
+    }
+
+    //endregion
+
     //sync adaptors
     private Uri eventUriAsSyncAdapter (Uri uri, String accountName, String accountType) {
         uri = uri.buildUpon()
@@ -820,112 +1782,81 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
     //endregion
 
     //region Attendees
-    private void createAttendeesForEvent(ContentResolver resolver, int eventID, ReadableArray attendees) {
-        Cursor cursor = CalendarContract.Attendees.query(resolver, eventID, new String[] {
-                CalendarContract.Attendees._ID
-        });
+    private static final String[] ATTENDEE_KEY_COLUMNS = new String[] {
+            CalendarContract.Attendees.ATTENDEE_EMAIL
+    };
 
-        while (cursor.moveToNext()) {
-            long attendeeId = cursor.getLong(0);
-            Uri attendeeUri = ContentUris.withAppendedId(CalendarContract.Attendees.CONTENT_URI, attendeeId);
-            resolver.delete(attendeeUri, null, null);
+    private HashMap<String, ArrayList<ContentValues>> findAttendeeRowsByEventIds(Collection<String> eventIDs) {
+        return findChildRowsByEventIds(CalendarContract.Attendees.CONTENT_URI, new String[] {
+                CalendarContract.Attendees._ID,
+                CalendarContract.Attendees.EVENT_ID,
+                CalendarContract.Attendees.ATTENDEE_EMAIL,
+                CalendarContract.Attendees.ATTENDEE_NAME,
+                CalendarContract.Attendees.ATTENDEE_RELATIONSHIP
+        }, eventIDs);
+    }
+
+    /**
+     * Returns the values of an attendee without its event ID, or null when it has no email.
+     */
+    private static ContentValues attendeeValues(ReadableMap attendee) {
+        ReadableType type = attendee.getType("url");
+        ReadableType fNameType = attendee.getType("firstName");
+        if (type != ReadableType.String) {
+            return null;
         }
-        cursor.close();
 
-        for (int i = 0; i < attendees.size(); i++) {
-            ReadableMap attendee = attendees.getMap(i);
-            ReadableType type = attendee.getType("url");
-            ReadableType fNameType = attendee.getType("firstName");
-            if (type == ReadableType.String) {
-                ContentValues attendeeValues = new ContentValues();
-                attendeeValues.put(CalendarContract.Attendees.EVENT_ID, eventID);
-                attendeeValues.put(CalendarContract.Attendees.ATTENDEE_EMAIL, attendee.getString("url"));
-                attendeeValues.put(CalendarContract.Attendees.ATTENDEE_RELATIONSHIP, CalendarContract.Attendees.RELATIONSHIP_ATTENDEE);
+        ContentValues attendeeValues = new ContentValues();
+        attendeeValues.put(CalendarContract.Attendees.ATTENDEE_EMAIL, attendee.getString("url"));
+        attendeeValues.put(CalendarContract.Attendees.ATTENDEE_RELATIONSHIP, CalendarContract.Attendees.RELATIONSHIP_ATTENDEE);
 
-                if (fNameType == ReadableType.String) {
-                    attendeeValues.put(CalendarContract.Attendees.ATTENDEE_NAME, attendee.getString("firstName"));
-                }
-                resolver.insert(CalendarContract.Attendees.CONTENT_URI, attendeeValues);
-            }
+        if (fNameType == ReadableType.String) {
+            attendeeValues.put(CalendarContract.Attendees.ATTENDEE_NAME, attendee.getString("firstName"));
         }
+        return attendeeValues;
     }
     //endregion
 
     //region Reminders
-    private void createRemindersForEvent(ContentResolver resolver, int eventID, ReadableArray reminders) {
-        Cursor cursor = null;
-
-        if (resolver != null) {
-            cursor = CalendarContract.Reminders.query(resolver, eventID, new String[] {
-                    CalendarContract.Reminders._ID
-            });
-        }
-
-        while (cursor != null && cursor.moveToNext()) {
-            Uri reminderUri = null;
-            long reminderId = cursor.getLong(0);
-            if (reminderId > 0) {
-                reminderUri = ContentUris.withAppendedId(CalendarContract.Reminders.CONTENT_URI, reminderId);
-            }
-            if (reminderUri != null) {
-                resolver.delete(reminderUri, null, null);
-            }
-        }
+    private static final String[] REMINDER_KEY_COLUMNS = new String[] {
+            CalendarContract.Reminders.MINUTES,
+            CalendarContract.Reminders.METHOD
+    };
+
+    private HashMap<String, ArrayList<ContentValues>> findReminderRowsByEventIds(Collection<String> eventIDs) {
+        return findChildRowsByEventIds(CalendarContract.Reminders.CONTENT_URI, new String[] {
+                CalendarContract.Reminders._ID,
+                CalendarContract.Reminders.EVENT_ID,
+                CalendarContract.Reminders.MINUTES,
+                CalendarContract.Reminders.METHOD
+        }, eventIDs);
+    }
 
-        if (cursor != null) {
-            cursor.close();
+    /**
+     * Returns the values of a relative reminder without its event ID, or null when its date isn't relative.
+     */
+    private static ContentValues reminderValues(ReadableMap reminder) {
+        ReadableType type = reminder.getType("date");
+        if (type != ReadableType.Number) {
+            return null;
         }
 
-        for (int i = 0; i < reminders.size(); i++) {
-            ReadableMap reminder = reminders.getMap(i);
-            ReadableType type = reminder.getType("date");
-            if (type == ReadableType.Number) {
-                int minutes = reminder.getInt("date");
-                ContentValues reminderValues = new ContentValues();
-
-                reminderValues.put(CalendarContract.Reminders.EVENT_ID, eventID);
-                reminderValues.put(CalendarContract.Reminders.MINUTES, minutes);
-                reminderValues.put(CalendarContract.Reminders.METHOD, CalendarContract.Reminders.METHOD_ALERT);
-
-                resolver.insert(CalendarContract.Reminders.CONTENT_URI, reminderValues);
-            }
-        }
+        ContentValues reminderValues = new ContentValues();
+        reminderValues.put(CalendarContract.Reminders.MINUTES, reminder.getInt("date"));
+        reminderValues.put(CalendarContract.Reminders.METHOD, CalendarContract.Reminders.METHOD_ALERT);
+        return reminderValues;
     }
 
-    private WritableNativeArray findReminderByEventId(String eventID, long startDate) {
+    private WritableNativeArray serializeAlarms(List<Integer> reminderMinutes, long startDate) {
 
         WritableNativeArray results = new WritableNativeArray();
-        ContentResolver cr = reactContext.getContentResolver();
-        String selection = "(" + CalendarContract.Reminders.EVENT_ID + " = ?)";
 
-        Cursor cursor = cr.query(CalendarContract.Reminders.CONTENT_URI, new String[]{
-                CalendarContract.Reminders.MINUTES
-        }, selection, new String[] {eventID}, null);
-
-        while (cursor != null && cursor.moveToNext()) {
+        for (Integer minutes : reminderMinutes) {
             WritableNativeMap alarm = new WritableNativeMap();
-
-            Calendar cal = Calendar.getInstance();
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-            sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
-            cal.setTimeInMillis(startDate);
-            int minutes;
-            try {
-                minutes = cursor.getInt(0);
-            } catch (Exception e) {
-                Log.d(this.getName(), "Error parsing event minutes", e);
-                continue;
-            }
-
-            cal.add(Calendar.MINUTE, minutes);
-            alarm.putString("date", sdf.format(cal.getTime()));
+            alarm.putString("date", DateFormatter.formatUTC(startDate + minutes * 60000L));
             results.pushMap(alarm);
         }
 
-        if (cursor != null) {
-            cursor.close();
-        }
-
         return results;
     }
     //endregion
@@ -1041,145 +1972,758 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
             rrule += ";COUNT=" + occurrence;
         }
 
-        return rrule;
-    }
-    //endregion
+        return rrule;
+    }
+    //endregion
+
+    //region Snapshots
+    /**
+     * Resolves with the persisted snapshot of the query shape when it covers the range,
+     * flagged stale, then reloads the range, persists it and emits what changed under the
+     * handle. Without a usable snapshot, the range is loaded, persisted and resolved fresh.
+     */
+    private void findEventsWithSnapshot(String handle, long start, long end, String[] calendarIDs, EventFields fields, Promise promise) {
+        String shapeKey = EventRangeCache.shapeKey(calendarIDs, fields);
+        EventSnapshotStore.Snapshot snapshot = start < end ? snapshots.read(shapeKey) : null;
+
+        List<EventSnapshotStore.Entry> previous = null;
+        if (snapshot != null && snapshot.covers(start, end)) {
+            previous = snapshot.overlapping(start, end);
+            promise.resolve(serializeSnapshot(previous, true, snapshot.savedAt));
+        }
+
+        List<EventSnapshotStore.Entry> entries;
+        try {
+            entries = loadSnapshotEntries(calendarIDs, fields, start, end);
+        } catch (Exception e) {
+            if (previous == null) {
+                promise.reject("find event error", e.getMessage());
+            } else {
+                WritableNativeMap payload = new WritableNativeMap();
+                payload.putString("handle", handle);
+                payload.putString("error", e.getMessage());
+                sendEvent(EVENTS_SNAPSHOT_REFRESH, payload);
+            }
+            return;
+        }
+
+        if (start < end) {
+            snapshots.write(shapeKey, start, end, entries);
+        }
+
+        if (previous == null) {
+            promise.resolve(serializeSnapshot(entries, false, System.currentTimeMillis()));
+            return;
+        }
+
+        // instances are told apart by event and begin, changes are reported by event ID
+        HashMap<String, EventSnapshotStore.Entry> previousByKey = new HashMap<>();
+        for (EventSnapshotStore.Entry entry : previous) {
+            previousByKey.put(entry.key, entry);
+        }
+        LinkedHashSet<String> added = new LinkedHashSet<>();
+        LinkedHashSet<String> updated = new LinkedHashSet<>();
+        LinkedHashSet<String> removed = new LinkedHashSet<>();
+        for (EventSnapshotStore.Entry entry : entries) {
+            EventSnapshotStore.Entry old = previousByKey.remove(entry.key);
+            if (old == null) {
+                added.add(entry.eventID);
+            } else if (!old.event.equals(entry.event)) {
+                updated.add(entry.eventID);
+            }
+        }
+        for (EventSnapshotStore.Entry entry : previousByKey.values()) {
+            removed.add(entry.eventID);
+        }
+
+        WritableNativeMap payload = serializeSnapshot(entries, false, System.currentTimeMillis());
+        payload.putString("handle", handle);
+        payload.putArray("added", Arguments.makeNativeArray(new ArrayList<Object>(added)));
+        payload.putArray("updated", Arguments.makeNativeArray(new ArrayList<Object>(updated)));
+        payload.putArray("removed", Arguments.makeNativeArray(new ArrayList<Object>(removed)));
+        sendEvent(EVENTS_SNAPSHOT_REFRESH, payload);
+    }
+
+    private List<EventSnapshotStore.Entry> loadSnapshotEntries(String[] calendarIDs, EventFields fields, long start, long end) {
+        List<EventRangeCache.Instance> instances = loadInstances(calendarIDs, fields, start, end, null);
+        ArrayList<EventSnapshotStore.Entry> entries = new ArrayList<>(instances.size());
+        for (EventRangeCache.Instance instance : instances) {
+            HashMap<String, Object> event = instance.event.toHashMap();
+            entries.add(new EventSnapshotStore.Entry((String) event.get("id"), instance.begin, instance.end, event));
+        }
+        return entries;
+    }
+
+    private static WritableNativeMap serializeSnapshot(List<EventSnapshotStore.Entry> entries, boolean stale, long savedAt) {
+        WritableNativeArray events = new WritableNativeArray();
+        for (EventSnapshotStore.Entry entry : entries) {
+            events.pushMap(Arguments.makeNativeMap(entry.event));
+        }
+
+        WritableNativeMap result = new WritableNativeMap();
+        result.putArray("events", events);
+        result.putBoolean("stale", stale);
+        result.putDouble("savedAt", savedAt);
+        return result;
+    }
+    //endregion
+
+    //region Archive
+    private static final String[] ARCHIVE_EVENT_COLUMNS = new String[] {
+            CalendarContract.Events.CALENDAR_ID,
+            CalendarContract.Events.TITLE,
+            CalendarContract.Events.DESCRIPTION,
+            CalendarContract.Events.EVENT_LOCATION,
+            CalendarContract.Events.DTSTART,
+            CalendarContract.Events.DTEND,
+            CalendarContract.Events.DURATION,
+            CalendarContract.Events.ALL_DAY,
+            CalendarContract.Events.EVENT_TIMEZONE,
+            CalendarContract.Events.EVENT_END_TIMEZONE,
+            CalendarContract.Events.RRULE,
+            CalendarContract.Events.RDATE,
+            CalendarContract.Events.EXRULE,
+            CalendarContract.Events.EXDATE,
+            CalendarContract.Events.AVAILABILITY,
+            CalendarContract.Events.ACCESS_LEVEL,
+            CalendarContract.Events.STATUS,
+            CalendarContract.Events.ORGANIZER,
+            CalendarContract.Events.GUESTS_CAN_MODIFY,
+            CalendarContract.Events.GUESTS_CAN_INVITE_OTHERS,
+            CalendarContract.Events.GUESTS_CAN_SEE_GUESTS,
+            CalendarContract.Events.ORIGINAL_ID,
+            CalendarContract.Events.ORIGINAL_INSTANCE_TIME,
+            CalendarContract.Events.ORIGINAL_ALL_DAY
+    };
+
+    private static final String[] ARCHIVE_REMINDER_COLUMNS = new String[] {
+            CalendarContract.Reminders.MINUTES,
+            CalendarContract.Reminders.METHOD
+    };
+
+    private static final String[] ARCHIVE_ATTENDEE_COLUMNS = new String[] {
+            CalendarContract.Attendees.ATTENDEE_NAME,
+            CalendarContract.Attendees.ATTENDEE_EMAIL,
+            CalendarContract.Attendees.ATTENDEE_RELATIONSHIP,
+            CalendarContract.Attendees.ATTENDEE_TYPE,
+            CalendarContract.Attendees.ATTENDEE_STATUS
+    };
+
+    /** Archived columns, indexed by row type. */
+    private static final String[][] ARCHIVE_COLUMNS = new String[][] {
+            null, ARCHIVE_EVENT_COLUMNS, ARCHIVE_REMINDER_COLUMNS, ARCHIVE_ATTENDEE_COLUMNS
+    };
+
+    /**
+     * Writes the events with an instance in the range, their reminders and their attendees
+     * to an archive, straight from the cursors. Recurring events are written before their
+     * exceptions so imports can link them. Returns the row counts and the archive size.
+     */
+    private WritableNativeMap exportEvents(long start, long end, String[] calendarIDs, File file) throws IOException {
+        ContentResolver cr = reactContext.getContentResolver();
+
+        Uri.Builder uriBuilder = CalendarContract.Instances.CONTENT_URI.buildUpon();
+        ContentUris.appendId(uriBuilder, start);
+        ContentUris.appendId(uriBuilder, end);
+
+        LinkedHashSet<String> eventIDs = new LinkedHashSet<>();
+        Cursor cursor = query(cr, uriBuilder.build(), new String[]{CalendarContract.Instances.EVENT_ID},
+                INSTANCES_IN_RANGE_SELECTION.build(calendarIDs.length),
+                SelectionBuilder.args(new String[]{Long.toString(end), Long.toString(start)}, calendarIDs), null);
+        if (cursor != null) {
+            try {
+                while (cursor.moveToNext()) {
+                    eventIDs.add(cursor.getString(0));
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        ArrayList<String[]> chunks = chunkSelectionArgs(eventIDs);
+
+        File temporary = new File(file.getPath() + ".tmp");
+        EventArchive.Writer writer = new EventArchive.Writer(temporary, ARCHIVE_COLUMNS);
+        int[] counts = new int[ARCHIVE_COLUMNS.length];
+        long bytes;
+        try {
+            for (String originals : new String[]{" IS NULL", " IS NOT NULL"}) {
+                for (String[] ids : chunks) {
+                    String selection = "(" + inSelection(CalendarContract.Events._ID, ids.length) + ") AND "
+                            + CalendarContract.Events.ORIGINAL_ID + originals;
+                    ArrayList<String> written = new ArrayList<>();
+                    counts[EventArchive.EVENT] += writeArchiveRows(cr, writer, EventArchive.EVENT, CalendarContract.Events.CONTENT_URI,
+                            CalendarContract.Events._ID, selection, ids, written);
+                    if (written.isEmpty()) {
+                        continue;
+                    }
+
+                    String[] writtenIDs = written.toArray(new String[written.size()]);
+                    String childSelection = inSelection(CalendarContract.Reminders.EVENT_ID, writtenIDs.length);
+                    counts[EventArchive.REMINDER] += writeArchiveRows(cr, writer, EventArchive.REMINDER, CalendarContract.Reminders.CONTENT_URI,
+                            CalendarContract.Reminders.EVENT_ID, childSelection, writtenIDs, null);
+                    counts[EventArchive.ATTENDEE] += writeArchiveRows(cr, writer, EventArchive.ATTENDEE, CalendarContract.Attendees.CONTENT_URI,
+                            CalendarContract.Attendees.EVENT_ID, childSelection, writtenIDs, null);
+                }
+            }
+            writer.close();
+            bytes = writer.size();
+            writer = null;
+
+            if (!temporary.renameTo(file)) {
+                throw new IOException("Unable to rename " + temporary);
+            }
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException ignored) {
+                }
+                temporary.delete();
+            }
+        }
+        metrics.record("rows.export", counts[EventArchive.EVENT]);
+
+        WritableNativeMap result = new WritableNativeMap();
+        result.putInt("events", counts[EventArchive.EVENT]);
+        result.putInt("reminders", counts[EventArchive.REMINDER]);
+        result.putInt("attendees", counts[EventArchive.ATTENDEE]);
+        result.putDouble("bytes", bytes);
+        return result;
+    }
+
+    /**
+     * Copies the rows of a query to the archive, the projection being the archived columns
+     * followed by the event ID column. Collects the written event IDs when asked to.
+     */
+    private int writeArchiveRows(ContentResolver cr, EventArchive.Writer writer, byte type, Uri uri, String eventIdColumn,
+                                 String selection, String[] selectionArgs, List<String> eventIDs) throws IOException {
+        String[] columns = ARCHIVE_COLUMNS[type];
+        String[] projection = Arrays.copyOf(columns, columns.length + 1);
+        projection[columns.length] = eventIdColumn;
+
+        Cursor cursor = query(cr, uri, projection, selection, selectionArgs, null);
+        if (cursor == null) {
+            return 0;
+        }
+
+        int count = 0;
+        try {
+            while (cursor.moveToNext()) {
+                long eventID = cursor.getLong(columns.length);
+                writer.writeRow(type, eventID, cursor);
+                if (eventIDs != null) {
+                    eventIDs.add(Long.toString(eventID));
+                }
+                count++;
+            }
+        } finally {
+            cursor.close();
+        }
+        return count;
+    }
+
+    /**
+     * Inserts the events of an archive, {@code chunkSize} events and their rows per provider
+     * transaction, a transaction also ending before it reaches the provider's operation limit.
+     * Archived IDs are mapped to the new ones, through back references within a transaction
+     * and through the results of the earlier ones, so reminders, attendees and exceptions stay
+     * attached to their event. Transactions have no yield point, so each is applied entirely
+     * or not at all, and the IDs of the events committed so far are added to
+     * {@code importedEventIDs} for the caller to report when a later one fails. Returns the
+     * inserted row counts.
+     */
+    private WritableNativeMap importEvents(File file, String calendarID, int chunkSize, List<String> importedEventIDs) throws Exception {
+        ContentResolver cr = reactContext.getContentResolver();
+        if (chunkSize <= 0) {
+            chunkSize = DEFAULT_BATCH_CHUNK_SIZE;
+        }
+
+        HashMap<Long, String> importedIDs = new HashMap<>();
+        LinkedHashMap<Long, Integer> pendingOperations = new LinkedHashMap<>();
+        ArrayList<ContentProviderOperation> operations = new ArrayList<>();
+        int[] counts = new int[ARCHIVE_COLUMNS.length];
+
+        EventArchive.Reader reader = new EventArchive.Reader(file);
+        try {
+            EventArchive.Row row;
+            while ((row = reader.next()) != null) {
+                if ((row.type == EventArchive.EVENT && pendingOperations.size() == chunkSize)
+                        || operations.size() == MAX_BATCH_OPERATIONS) {
+                    applyArchiveOperations(cr, operations, pendingOperations, importedIDs, importedEventIDs);
+                }
+
+                if (row.type == EventArchive.EVENT) {
+
+                    ContentValues values = row.values;
+                    if (calendarID != null) {
+                        values.put(CalendarContract.Events.CALENDAR_ID, calendarID);
+                    }
+                    // the provider rejects events with both, which some sync adapters store
+                    if (values.containsKey(CalendarContract.Events.DTEND) && values.containsKey(CalendarContract.Events.DURATION)) {
+                        boolean recurring = values.containsKey(CalendarContract.Events.RRULE) || values.containsKey(CalendarContract.Events.RDATE);
+                        values.remove(recurring ? CalendarContract.Events.DTEND : CalendarContract.Events.DURATION);
+                    }
+
+                    int operationIndex = operations.size();
+                    ContentProviderOperation.Builder builder = ContentProviderOperation.newInsert(CalendarContract.Events.CONTENT_URI);
+                    String originalID = values.getAsString(CalendarContract.Events.ORIGINAL_ID);
+                    if (originalID != null) {
+                        values.remove(CalendarContract.Events.ORIGINAL_ID);
+                        if (!putArchivedReference(builder, values, CalendarContract.Events.ORIGINAL_ID, Long.parseLong(originalID), pendingOperations, importedIDs)) {
+                            // the recurring event wasn't archived, the exception becomes a single event
+                            values.remove(CalendarContract.Events.ORIGINAL_INSTANCE_TIME);
+                            values.remove(CalendarContract.Events.ORIGINAL_ALL_DAY);
+                        }
+                    }
+                    operations.add(builder.withValues(values).build());
+                    pendingOperations.put(row.eventID, operationIndex);
+                    counts[EventArchive.EVENT]++;
+                } else {
+                    boolean reminder = row.type == EventArchive.REMINDER;
+                    Uri uri = reminder ? CalendarContract.Reminders.CONTENT_URI : CalendarContract.Attendees.CONTENT_URI;
+                    String eventIdColumn = reminder ? CalendarContract.Reminders.EVENT_ID : CalendarContract.Attendees.EVENT_ID;
+                    ContentProviderOperation.Builder builder = ContentProviderOperation.newInsert(uri);
+                    if (putArchivedReference(builder, row.values, eventIdColumn, row.eventID, pendingOperations, importedIDs)) {
+                        operations.add(builder.withValues(row.values).build());
+                        counts[row.type]++;
+                    }
+                }
+            }
+            applyArchiveOperations(cr, operations, pendingOperations, importedIDs, importedEventIDs);
+        } finally {
+            reader.close();
+        }
+        metrics.record("rows.import", counts[EventArchive.EVENT]);
+
+        WritableNativeMap result = new WritableNativeMap();
+        result.putInt("events", counts[EventArchive.EVENT]);
+        result.putInt("reminders", counts[EventArchive.REMINDER]);
+        result.putInt("attendees", counts[EventArchive.ATTENDEE]);
+        return result;
+    }
+
+    /**
+     * Sets a column to the new ID of an archived event, or to a back reference to its pending
+     * insert. Returns false when the event wasn't imported. Values must be given to the
+     * builder afterwards, {@code withValues} dropping the ones set before.
+     */
+    private static boolean putArchivedReference(ContentProviderOperation.Builder builder, ContentValues values, String column, long archivedID,
+                                                HashMap<Long, Integer> pendingOperations, HashMap<Long, String> importedIDs) {
+        Integer operationIndex = pendingOperations.get(archivedID);
+        if (operationIndex != null) {
+            builder.withValueBackReference(column, operationIndex);
+            return true;
+        }
+        String eventID = importedIDs.get(archivedID);
+        if (eventID != null) {
+            values.put(column, Long.parseLong(eventID));
+            return true;
+        }
+        return false;
+    }
+
+    private void applyArchiveOperations(ContentResolver cr, ArrayList<ContentProviderOperation> operations,
+                                        LinkedHashMap<Long, Integer> pendingOperations, HashMap<Long, String> importedIDs,
+                                        List<String> importedEventIDs) throws Exception {
+        if (operations.isEmpty()) {
+            return;
+        }
+
+        ContentProviderResult[] results = applyBatch(cr, CalendarContract.AUTHORITY, operations);
+        for (Map.Entry<Long, Integer> entry : pendingOperations.entrySet()) {
+            Uri eventUri = results[entry.getValue()].uri;
+            if (eventUri == null) {
+                throw new Exception("Unable to import event " + entry.getKey());
+            }
+            importedIDs.put(entry.getKey(), eventUri.getLastPathSegment());
+            importedEventIDs.add(eventUri.getLastPathSegment());
+        }
+        operations.clear();
+        pendingOperations.clear();
+    }
+
+    private static File archiveFile(String path) {
+        return new File(path.startsWith("file://") ? Uri.parse(path).getPath() : path);
+    }
+    //endregion
+
+    //region Provider Calls
+    private Cursor query(ContentResolver cr, Uri uri, String[] projection, String selection, String[] selectionArgs, String sortOrder) {
+        return query(cr, uri, projection, selection, selectionArgs, sortOrder, null);
+    }
+
+    private Cursor query(ContentResolver cr, Uri uri, String[] projection, String selection, String[] selectionArgs, String sortOrder,
+                         CancellationSignal signal) {
+        long started = metrics.start();
+        try {
+            return cr.query(uri, projection, selection, selectionArgs, sortOrder, signal);
+        } finally {
+            metrics.stop("provider.query", started);
+        }
+    }
+
+    private Uri insert(ContentResolver cr, Uri uri, ContentValues values) {
+        long started = metrics.start();
+        try {
+            return cr.insert(uri, values);
+        } finally {
+            metrics.stop("provider.insert", started);
+        }
+    }
+
+    private int update(ContentResolver cr, Uri uri, ContentValues values, String where, String[] selectionArgs) {
+        long started = metrics.start();
+        try {
+            return cr.update(uri, values, where, selectionArgs);
+        } finally {
+            metrics.stop("provider.update", started);
+        }
+    }
+
+    private int delete(ContentResolver cr, Uri uri, String where, String[] selectionArgs) {
+        long started = metrics.start();
+        try {
+            return cr.delete(uri, where, selectionArgs);
+        } finally {
+            metrics.stop("provider.delete", started);
+        }
+    }
+
+    private ContentProviderResult[] applyBatch(ContentResolver cr, String authority, ArrayList<ContentProviderOperation> operations)
+            throws RemoteException, OperationApplicationException {
+        long started = metrics.start();
+        try {
+            return cr.applyBatch(authority, operations);
+        } finally {
+            metrics.stop("provider.applyBatch", started);
+            metrics.record("rows.applyBatch", operations.size());
+        }
+    }
+    //endregion
+
+    // region Serialize Events
+    private WritableNativeArray serializeEvents(Cursor cursor, EventFields fields, CancellationSignal signal) {
+        WritableNativeArray results;
+        if (cursor != null) {
+            try {
+                results = serializeEventPage(cursor, EventColumns.of(cursor), fields, Integer.MAX_VALUE, signal);
+            } finally {
+                cursor.close();
+            }
+        } else {
+            results = new WritableNativeArray();
+        }
+
+        return results;
+    }
+
+    /**
+     * Serializes the cursor column by column: one array per requested scalar field, all
+     * indexed by row, dates as millis and strings as indexes into a deduplicated table.
+     * Saves building a map per event, relations being left out.
+     */
+    private WritableNativeMap serializeCompactEvents(Cursor cursor, EventFields fields, CancellationSignal signal) {
+        WritableNativeArray ids = new WritableNativeArray();
+        WritableNativeArray startDates = fields.has("startDate") ? new WritableNativeArray() : null;
+        WritableNativeArray endDates = fields.has("endDate") ? new WritableNativeArray() : null;
+        WritableNativeArray allDays = fields.has("allDay") ? new WritableNativeArray() : null;
+        WritableNativeArray calendarIDs = fields.hasCalendar() ? new WritableNativeArray() : null;
+        WritableNativeArray titles = fields.has("title") ? new WritableNativeArray() : null;
+        WritableNativeArray descriptions = fields.has("description") ? new WritableNativeArray() : null;
+        WritableNativeArray locations = fields.has("location") ? new WritableNativeArray() : null;
+        WritableNativeArray availabilities = fields.hasAvailability() ? new WritableNativeArray() : null;
+        WritableNativeArray recurrences = fields.has("recurrence") ? new WritableNativeArray() : null;
+        StringTable strings = new StringTable();
+        int count = 0;
+        long started = metrics.start();
+
+        if (cursor != null) {
+            EventColumns columns = EventColumns.of(cursor);
+
+            while (cursor.moveToNext()) {
+                throwIfCanceled(signal);
+                ids.pushString(cursor.getString(columns.id));
+                if (startDates != null) {
+                    startDates.pushDouble(cursor.getLong(columns.startDate));
+                }
+                if (endDates != null) {
+                    endDates.pushDouble(cursor.getLong(columns.endDate));
+                }
+                if (allDays != null) {
+                    allDays.pushBoolean(!cursor.isNull(columns.allDay) && cursor.getInt(columns.allDay) != 0);
+                }
+                if (calendarIDs != null) {
+                    calendarIDs.pushString(cursor.getString(columns.calendarId));
+                }
+                if (titles != null) {
+                    titles.pushInt(strings.indexOf(cursor.getString(columns.title)));
+                }
+                if (descriptions != null) {
+                    descriptions.pushInt(strings.indexOf(cursor.getString(columns.description)));
+                }
+                if (locations != null) {
+                    locations.pushInt(strings.indexOf(cursor.getString(columns.location)));
+                }
+                if (availabilities != null) {
+                    availabilities.pushInt(strings.indexOf(availabilityStringMatchingConstant(cursor.getInt(columns.availability))));
+                }
+                if (recurrences != null) {
+                    String frequency = EventColumns.isPresent(cursor, columns.rrule) ? RecurrenceRule.get(cursor.getString(columns.rrule)).frequency : null;
+                    recurrences.pushInt(strings.indexOf(frequency));
+                }
+                count++;
+            }
+        }
+
+        WritableNativeMap result = new WritableNativeMap();
+        result.putInt("count", count);
+        result.putArray("ids", ids);
+        putColumn(result, "startDates", startDates);
+        putColumn(result, "endDates", endDates);
+        putColumn(result, "allDay", allDays);
+        putColumn(result, "calendarIds", calendarIDs);
+        putColumn(result, "titles", titles);
+        putColumn(result, "descriptions", descriptions);
+        putColumn(result, "locations", locations);
+        putColumn(result, "availabilities", availabilities);
+        putColumn(result, "recurrences", recurrences);
+
+        WritableNativeArray table = new WritableNativeArray();
+        for (String value : strings.strings()) {
+            table.pushString(value);
+        }
+        result.putArray("strings", table);
+
+        metrics.stop("serialize.compact", started);
+        metrics.record("rows.compact", count);
+        return result;
+    }
+
+    private static void throwIfCanceled(CancellationSignal signal) {
+        if (signal != null) {
+            signal.throwIfCanceled();
+        }
+    }
+
+    private static void putColumn(WritableNativeMap result, String name, WritableNativeArray column) {
+        if (column != null) {
+            result.putArray(name, column);
+        }
+    }
+
+    /**
+     * Serializes the instances of a range for {@link EventRangeCache}, keeping their interval.
+     */
+    private List<EventRangeCache.Instance> loadInstances(String[] calendarIDs, EventFields fields, long start, long end, CancellationSignal signal) {
+        ArrayList<EventRangeCache.Instance> results = new ArrayList<>();
+        Cursor cursor = queryInstances(start, end, calendarIDs, fields, signal);
+        if (cursor == null) {
+            return results;
+        }
+
+        try {
+            EventColumns columns = EventColumns.of(cursor);
+            EventRelations relations = fields.hasRelations() ? findEventRelations(cursor, columns, fields, Integer.MAX_VALUE) : null;
+
+            long started = metrics.start();
+            while (cursor.moveToNext()) {
+                throwIfCanceled(signal);
+                long begin = cursor.getLong(columns.startDate);
+                long instanceEnd = EventColumns.isPresent(cursor, columns.endDate) ? cursor.getLong(columns.endDate) : begin;
+                results.add(new EventRangeCache.Instance(cursor.getString(columns.id), begin, instanceEnd,
+                        serializeEvent(cursor, columns, fields, relations)));
+            }
+            metrics.stop("serialize.events", started);
+            metrics.record("rows.events", results.size());
+        } finally {
+            cursor.close();
+        }
+
+        return results;
+    }
+
+    private WritableNativeArray serializeEventPage(Cursor cursor, EventColumns columns, EventFields fields, int pageSize, CancellationSignal signal) {
+        WritableNativeArray results = new WritableNativeArray();
+        EventRelations relations = fields.hasRelations() ? findEventRelations(cursor, columns, fields, pageSize) : null;
+
+        long started = metrics.start();
+        for (int i = 0; i < pageSize && cursor.moveToNext(); i++) {
+            throwIfCanceled(signal);
+            results.pushMap(serializeEvent(cursor, columns, fields, relations));
+        }
+        metrics.stop("serialize.events", started);
+        metrics.record("rows.events", results.size());
+
+        return results;
+    }
+
+    /**
+     * Emits the matching events in pages of {@code pageSize} so neither side has to hold the
+     * whole range in memory. Returns the number of events emitted.
+     */
+    private int streamEvents(String queryHandle, Dynamic startDate, Dynamic endDate, ReadableArray calendars, EventFields fields, int pageSize, AtomicBoolean cancelled) {
+        Cursor cursor = queryEvents(startDate, endDate, calendars, fields);
+        if (cursor == null) {
+            return 0;
+        }
+
+        if (pageSize <= 0) {
+            pageSize = DEFAULT_STREAM_PAGE_SIZE;
+        }
+
+        EventColumns columns = EventColumns.of(cursor);
+        int count = 0;
+        int page = 0;
+        try {
+            while (!cancelled.get() && cursor.getPosition() + 1 < cursor.getCount()) {
+                WritableNativeArray events = serializeEventPage(cursor, columns, fields, pageSize, null);
+                int size = events.size();
+
+                WritableNativeMap payload = new WritableNativeMap();
+                payload.putString("handle", queryHandle);
+                payload.putInt("page", page++);
+                payload.putArray("events", events);
+                sendEvent(EVENTS_STREAM_PAGE, payload);
 
-    // region Serialize Events
-    private WritableNativeArray serializeEvents(Cursor cursor, Boolean isLite) {
-        WritableNativeArray results = new WritableNativeArray();
-        if (cursor != null) {
-            while (cursor.moveToNext()) {
-                results.pushMap(serializeEvent(cursor, isLite));
+                count += size;
             }
-
+        } finally {
             cursor.close();
         }
 
-        return results;
+        return count;
     }
 
-    private WritableNativeMap serializeEvent(Cursor cursor, Boolean isLite) {
+    private WritableNativeMap serializeEvent(Cursor cursor, EventColumns columns, EventFields fields, EventRelations relations) {
         WritableNativeMap event = new WritableNativeMap();
 
-        String dateFormat = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
-        SimpleDateFormat sdf = new SimpleDateFormat(dateFormat);
-        sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
-
-        Calendar foundStartDate = Calendar.getInstance();
-        Calendar foundEndDate = Calendar.getInstance();
-
         boolean allDay = false;
+        long startDate = 0;
         String startDateUTC = "";
         String endDateUTC = "";
 
-        if (cursor.getString(3) != null) {
-            foundStartDate.setTimeInMillis(Long.parseLong(cursor.getString(3)));
-            startDateUTC = sdf.format(foundStartDate.getTime());
+        if (EventColumns.isPresent(cursor, columns.startDate)) {
+            startDate = cursor.getLong(columns.startDate);
+            startDateUTC = DateFormatter.formatUTC(startDate);
         }
 
-        if (cursor.getString(4) != null) {
-            foundEndDate.setTimeInMillis(Long.parseLong(cursor.getString(4)));
-            endDateUTC = sdf.format(foundEndDate.getTime());
+        if (EventColumns.isPresent(cursor, columns.endDate)) {
+            endDateUTC = DateFormatter.formatUTC(cursor.getLong(columns.endDate));
         }
 
-        if (cursor.getString(5) != null) {
-            allDay = cursor.getInt(5) != 0;
+        if (EventColumns.isPresent(cursor, columns.allDay)) {
+            allDay = cursor.getInt(columns.allDay) != 0;
         }
 
-        if (cursor.getString(7) != null) {
-            WritableNativeMap recurrenceRule = new WritableNativeMap();
-            String[] recurrenceRules = cursor.getString(7).split(";");
-            if (recurrenceRules.length > 0 && recurrenceRules[0].split("=").length > 1) {
-                event.putString("recurrence", recurrenceRules[0].split("=")[1].toLowerCase());
-                recurrenceRule.putString("frequency", recurrenceRules[0].split("=")[1].toLowerCase());
-            }
+        // the rule is only parsed, and its map only built, for the fields asking for them
+        boolean hasRecurrence = fields.has("recurrence");
+        boolean hasRecurrenceRule = fields.has("recurrenceRule");
+        if ((hasRecurrence || hasRecurrenceRule) && EventColumns.isPresent(cursor, columns.rrule)) {
+            RecurrenceRule rule = RecurrenceRule.get(cursor.getString(columns.rrule));
 
-            if (cursor.getColumnIndex(CalendarContract.Events.DURATION) != -1 && cursor.getString(cursor.getColumnIndex(CalendarContract.Events.DURATION)) != null) {
-                recurrenceRule.putString("duration", cursor.getString(cursor.getColumnIndex(CalendarContract.Events.DURATION)));
+            if (hasRecurrence && rule.frequency != null) {
+                event.putString("recurrence", rule.frequency);
             }
-
-            for (int i = 0; i < recurrenceRules.length; i++) {
-                if (recurrenceRules[i].contains("INTERVAL")) {
-                    recurrenceRule.putInt("interval", Integer.parseInt(recurrenceRules[i].split("=")[1]));
-                }
-                if (recurrenceRules[i].contains("UNTIL")) {
-                    SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd'T'HHmmss'Z'");
-                    try {
-                        recurrenceRule.putString("endDate", sdf.format(format.parse(recurrenceRules[i].split("=")[1])));
-                    } catch (ParseException e) {
-                        e.printStackTrace();
-                    }
-                }
-                if (recurrenceRules[i].contains("COUNT")) {
-                    recurrenceRule.putInt("occurrence", Integer.parseInt(recurrenceRules[i].split("=")[1]));
-                }
-                if (recurrenceRules[i].contains("BYDAY")) {
-                    String days = recurrenceRules[i].split("=")[1].toLowerCase();
-                    WritableNativeArray daysOfWeekNativeArr = new WritableNativeArray();
-                    String[] daysOfWeek = days.split(",");
-                    for (int d = 0; d < daysOfWeek.length; d++) {
-                        daysOfWeekNativeArr.pushString(daysOfWeek[d]);
-                    }
-                    recurrenceRule.putArray("daysOfWeek", daysOfWeekNativeArr);
-                }
+            if (hasRecurrenceRule) {
+                event.putMap("recurrenceRule", serializeRecurrenceRule(cursor, columns, rule));
             }
-
-            event.putMap("recurrenceRule", recurrenceRule);
         }
 
-        if (cursor.getColumnIndex(CalendarContract.Instances.ORIGINAL_INSTANCE_TIME) != -1 && cursor.getString(cursor.getColumnIndex(CalendarContract.Instances.ORIGINAL_INSTANCE_TIME)) != null) {
-            Calendar originalInstanceDate = Calendar.getInstance();
-            originalInstanceDate.setTimeInMillis(Long.parseLong(cursor.getString(cursor.getColumnIndex(CalendarContract.Events.ORIGINAL_INSTANCE_TIME))));
-            event.putString("originalInstanceTime", sdf.format(originalInstanceDate.getTime()));
+        if (EventColumns.isPresent(cursor, columns.originalInstanceTime)) {
+            event.putString("originalInstanceTime", DateFormatter.formatUTC(cursor.getLong(columns.originalInstanceTime)));
         }
 
+        String eventID = cursor.getString(columns.id);
 
-        event.putString("id", cursor.getString(0));
-        event.putString("title", cursor.getString(cursor.getColumnIndex("title")));
-        event.putString("description", cursor.getString(2));
-        event.putString("startDate", startDateUTC);
-        event.putString("endDate", endDateUTC);
-        event.putBoolean("allDay", allDay);
-        event.putString("location", cursor.getString(6));
+        event.putString("id", eventID);
+        if (fields.has("title")) {
+            event.putString("title", cursor.getString(columns.title));
+        }
+        if (fields.has("description")) {
+            event.putString("description", cursor.getString(columns.description));
+        }
+        if (fields.has("startDate")) {
+            event.putString("startDate", startDateUTC);
+        }
+        if (fields.has("endDate")) {
+            event.putString("endDate", endDateUTC);
+        }
+        if (fields.has("allDay")) {
+            event.putBoolean("allDay", allDay);
+        }
+        if (fields.has("location")) {
+            event.putString("location", cursor.getString(columns.location));
+        }
 
-        if (isLite) {
-            event.putString("calendar_id", cursor.getString(cursor.getColumnIndex("calendar_id")));
+        if (fields.isLite) {
+            if (fields.hasCalendar()) {
+                event.putString("calendar_id", cursor.getString(columns.calendarId));
+            }
         } else {
-            event.putMap("calendar", findCalendarById(cursor.getString(cursor.getColumnIndex("calendar_id"))));
-            event.putArray("attendees", (WritableArray) findAttendeesByEventId(cursor.getString(0)));
-            event.putString("availability", availabilityStringMatchingConstant(cursor.getInt(9)));
+            if (fields.hasCalendar()) {
+                event.putMap("calendar", relations.getCalendar(cursor.getString(columns.calendarId)));
+            }
+            if (fields.hasAttendees()) {
+                event.putArray("attendees", serializeAttendees(relations.getAttendees(eventID)));
+            }
+            if (fields.hasAvailability()) {
+                event.putString("availability", availabilityStringMatchingConstant(cursor.getInt(columns.availability)));
+            }
 
-            if (cursor.getInt(10) > 0) {
-                event.putArray("alarms", findReminderByEventId(cursor.getString(0), Long.parseLong(cursor.getString(3))));
-            } else {
-                WritableNativeArray emptyAlarms = new WritableNativeArray();
-                event.putArray("alarms", emptyAlarms);
+            if (fields.hasAlarms()) {
+                if (cursor.getInt(columns.hasAlarm) > 0) {
+                    event.putArray("alarms", serializeAlarms(relations.getReminderMinutes(eventID), startDate));
+                } else {
+                    WritableNativeArray emptyAlarms = new WritableNativeArray();
+                    event.putArray("alarms", emptyAlarms);
+                }
             }
         }
 
-        if (cursor.getColumnIndex(CalendarContract.Events.ORIGINAL_ID) != -1 && cursor.getString(cursor.getColumnIndex(CalendarContract.Events.ORIGINAL_ID)) != null) {
-            event.putString("originalId", cursor.getString(cursor.getColumnIndex(CalendarContract.Events.ORIGINAL_ID)));
+        if (EventColumns.isPresent(cursor, columns.originalId)) {
+            event.putString("originalId", cursor.getString(columns.originalId));
         }
 
-        if (cursor.getColumnIndex(CalendarContract.Instances.ORIGINAL_SYNC_ID) != -1 && cursor.getString(cursor.getColumnIndex(CalendarContract.Instances.ORIGINAL_SYNC_ID)) != null) {
-            event.putString("syncId", cursor.getString(cursor.getColumnIndex(CalendarContract.Instances.ORIGINAL_SYNC_ID)));
+        if (EventColumns.isPresent(cursor, columns.originalSyncId)) {
+            event.putString("syncId", cursor.getString(columns.originalSyncId));
         }
 
         return event;
     }
 
-    private WritableNativeArray serializeEventCalendars(Cursor cursor) {
-        WritableNativeArray results = new WritableNativeArray();
+    private static WritableNativeMap serializeRecurrenceRule(Cursor cursor, EventColumns columns, RecurrenceRule rule) {
+        WritableNativeMap recurrenceRule = new WritableNativeMap();
 
-        if (cursor != null) {
-            while (cursor.moveToNext()) {
-                results.pushMap(serializeEventCalendar(cursor));
+        if (rule.frequency != null) {
+            recurrenceRule.putString("frequency", rule.frequency);
+        }
+
+        if (EventColumns.isPresent(cursor, columns.duration)) {
+            recurrenceRule.putString("duration", cursor.getString(columns.duration));
+        }
+
+        if (rule.interval != null) {
+            recurrenceRule.putInt("interval", rule.interval);
+        }
+
+        String endDate = rule.getEndDate(TimeZone.getDefault());
+        if (endDate != null) {
+            recurrenceRule.putString("endDate", endDate);
+        }
+
+        if (rule.occurrence != null) {
+            recurrenceRule.putInt("occurrence", rule.occurrence);
+        }
+
+        if (rule.daysOfWeek != null) {
+            WritableNativeArray daysOfWeekNativeArr = new WritableNativeArray();
+            for (String day : rule.daysOfWeek) {
+                daysOfWeekNativeArr.pushString(day);
             }
-            cursor.close();
+            recurrenceRule.putArray("daysOfWeek", daysOfWeekNativeArr);
         }
 
-        return results;
+        return recurrenceRule;
     }
 
     private WritableNativeMap serializeEventCalendar(Cursor cursor) {
@@ -1218,21 +2762,21 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
         return calendar;
     }
 
-    private WritableNativeArray serializeAttendeeCalendar(Cursor cursor) {
+    private WritableNativeArray serializeAttendees(List<String[]> rows) {
 
         WritableNativeArray results = new WritableNativeArray();
 
-        for (cursor.moveToFirst(); !cursor.isAfterLast(); cursor.moveToNext()) {
+        for (String[] row : rows) {
 
             WritableNativeMap attendee = new WritableNativeMap();
 
-            attendee.putString("name", cursor.getString( 2));
-            attendee.putString("email", cursor.getString(3));
-            attendee.putString("type", cursor.getString(4));
-            attendee.putString("relationship", cursor.getString(5));
-            attendee.putString("status", cursor.getString(6));
-            attendee.putString("identity", cursor.getString(7));
-            attendee.putString("id_namespace", cursor.getString(8));
+            attendee.putString("name", row[0]);
+            attendee.putString("email", row[1]);
+            attendee.putString("type", row[2]);
+            attendee.putString("relationship", row[3]);
+            attendee.putString("status", row[4]);
+            attendee.putString("identity", row[5]);
+            attendee.putString("id_namespace", row[6]);
             results.pushMap(attendee);
         }
 
@@ -1240,6 +2784,12 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
     }
     // endregion
 
+    private void sendEvent(String eventName, Object params) {
+        reactContext
+                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                .emit(eventName, params);
+    }
+
     private String getPermissionKey(boolean readOnly) {
         String permissionKey = "permissionRequested"; // default to previous key for read/write, backwards-compatible
         if (readOnly) {
@@ -1283,14 +2833,13 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
     public void findCalendars(final Promise promise) {
         if (this.haveCalendarPermissions(true)) {
             try {
-                Thread thread = new Thread(new Runnable(){
+                executor.executeRead(metrics.timed("findCalendars", new Runnable(){
                     @Override
                     public void run() {
                         WritableArray calendars = findEventCalendars();
                         promise.resolve(calendars);
                     }
-                });
-                thread.start();
+                }));
             } catch (Exception e) {
                 promise.reject("calendar request error", e.getMessage());
             }
@@ -1306,18 +2855,18 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
             return;
         }
         try {
-            Thread thread = new Thread(new Runnable(){
+            executor.executeWrite(metrics.timed("saveCalendar", new Runnable(){
                 @Override
                 public void run() {
                     try {
                         Integer calendarID = addCalendar(options);
+                        onEventsWritten();
                         promise.resolve(calendarID.toString());
                     } catch (Exception e) {
                         promise.reject("save calendar error", e.getMessage());
                     }
                 }
-            });
-            thread.start();
+            }));
         } catch (Exception e) {
             promise.reject("save calendar error", "Calendar could not be saved", e);
         }
@@ -1327,15 +2876,14 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
     public void removeCalendar(final String CalendarID, final Promise promise) {
         if (this.haveCalendarPermissions(false)) {
             try {
-                Thread thread = new Thread(new Runnable(){
+                executor.executeWrite(metrics.timed("removeCalendar", new Runnable(){
                     @Override
                     public void run() {
                         boolean successful = removeCalendar(CalendarID);
+                        onEventsWritten();
                         promise.resolve(successful);
                     }
-                });
-                thread.start();
-
+                }));
             } catch (Exception e) {
                 promise.reject("error removing calendar", e.getMessage());
             }
@@ -1348,13 +2896,14 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
     public void saveEvent(final String title, final ReadableMap details, final ReadableMap options, final Promise promise) {
         if (this.haveCalendarPermissions(false)) {
             try {
-                Thread thread = new Thread(new Runnable(){
+                executor.executeWrite(metrics.timed("saveEvent", new Runnable(){
                     @Override
                     public void run() {
                         int eventId;
                         try {
                             eventId = addEvent(title, details, options);
                             if (eventId > -1) {
+                                onEventsWritten();
                                 promise.resolve(Integer.toString(eventId));
                             } else {
                                 promise.reject("add event error", "Unable to save event");
@@ -1363,8 +2912,38 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
                             promise.reject("add event error", e.getMessage());
                         }
                     }
-                });
-                thread.start();
+                }));
+            } catch (Exception e) {
+                promise.reject("add event error", e.getMessage());
+            }
+        } else {
+            promise.reject("add event error", "you don't have permissions to add an event to the users calendar");
+        }
+    }
+
+    @ReactMethod
+    public void saveEvents(final ReadableArray events, final ReadableMap options, final Promise promise) {
+        if (this.haveCalendarPermissions(false)) {
+            try {
+                final int chunkSize = options.hasKey("chunkSize") ? options.getInt("chunkSize") : DEFAULT_BATCH_CHUNK_SIZE;
+
+                executor.executeWrite(metrics.timed("saveEvents", new Runnable(){
+                    @Override
+                    public void run() {
+                        try {
+                            WritableNativeArray results;
+                            try {
+                                results = addEvents(events, chunkSize);
+                            } finally {
+                                // after the write, so reads started while it ran aren't cached or joined
+                                onEventsWritten();
+                            }
+                            promise.resolve(results);
+                        } catch (Exception e) {
+                            promise.reject("add event error", e.getMessage());
+                        }
+                    }
+                }));
             } catch (Exception e) {
                 promise.reject("add event error", e.getMessage());
             }
@@ -1374,19 +2953,140 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
     }
 
     @ReactMethod
-    public void findAllEvents(final Dynamic startDate, final Dynamic endDate, final ReadableArray calendars, final Boolean isLite, final Promise promise) {
+    public void findAllEvents(final Dynamic startDate, final Dynamic endDate, final ReadableArray calendars, final Boolean isLite, final ReadableMap options, final Promise promise) {
+
+        if (this.haveCalendarPermissions(true)) {
+            try {
+                final EventFields fields = eventFieldsFromOptions(options, isLite);
+                final boolean compact = options != null && options.hasKey("compact") && options.getBoolean("compact");
+                // the cache holds serialized maps, compact results are built straight from the cursor
+                final boolean useCache = !compact && (options == null || !options.hasKey("cache") || options.getBoolean("cache"));
+                final int prefetchWindows = useCache ? prefetchWindowsFromOptions(options) : 0;
+                final long[] range = parseRange(startDate, endDate);
+                final String[] calendarIDs = calendarIdsFromArray(calendars);
+
+                if (options != null && options.hasKey("snapshotHandle")) {
+                    final String handle = options.getString("snapshotHandle");
+                    executor.executeRead(metrics.timed("findAllEvents", new Runnable(){
+                        @Override
+                        public void run() {
+                            findEventsWithSnapshot(handle, range[0], range[1], calendarIDs, fields, promise);
+                        }
+                    }));
+                    return;
+                }
+
+                // prefetches queued for earlier queries are obsolete once a new one comes in
+                final int generation = prefetchGeneration.incrementAndGet();
+                executor.cancelPrefetches();
+
+                final String requestId = requestIdFromOptions(options);
+                final String requestKey = findEventsRequestKey(range, calendarIDs, fields, useCache, compact, requestId);
+                if (!requests.join(requestKey, promise)) {
+                    return;
+                }
+
+                final CancellationSignal signal = registerCancellation(requestId);
+                try {
+                    executor.executeRead(metrics.timed("findAllEvents", new Runnable(){
+                        @Override
+                        public void run() {
+                            try {
+                                throwIfCanceled(signal);
+                                if (compact) {
+                                    requests.resolve(requestKey, findCompactEvents(range[0], range[1], calendarIDs, fields, signal));
+                                } else {
+                                    requests.resolve(requestKey, findEvents(range[0], range[1], calendarIDs, fields, useCache, signal));
+                                }
+                            } catch (OperationCanceledException e) {
+                                requests.reject(requestKey, "find event cancelled", "request " + requestId + " was cancelled");
+                                return;
+                            } catch (Exception e) {
+                                requests.reject(requestKey, "find event error", e.getMessage());
+                                return;
+                            } finally {
+                                releaseCancellation(requestId, signal);
+                            }
+
+                            if (prefetchWindows > 0) {
+                                prefetchAdjacentWindows(range[0], range[1], calendarIDs, fields, prefetchWindows, generation);
+                            }
+                        }
+                    }));
+                } catch (Exception e) {
+                    releaseCancellation(requestId, signal);
+                    requests.reject(requestKey, "find event error", e.getMessage());
+                }
+            } catch (Exception e) {
+                promise.reject("find event error", e.getMessage());
+            }
+        } else {
+            promise.reject("find event error", "you don't have permissions to read an event from the users calendar");
+        }
+
+    }
+
+    @ReactMethod
+    public void getFreeBusy(final Dynamic startDate, final Dynamic endDate, final ReadableArray calendars, final double granularityMinutes, final Promise promise) {
 
         if (this.haveCalendarPermissions(true)) {
             try {
-                Thread thread = new Thread(new Runnable(){
+                final long[] range = parseRange(startDate, endDate);
+                final String[] calendarIDs = calendarIdsFromArray(calendars);
+
+                executor.executeRead(metrics.timed("getFreeBusy", new Runnable(){
                     @Override
                     public void run() {
-                        WritableNativeArray results = findEvents(startDate, endDate, calendars, isLite);
-                        promise.resolve(results);
+                        try {
+                            promise.resolve(findFreeBusy(range[0], range[1], calendarIDs, (long) (granularityMinutes * 60 * 1000)));
+                        } catch (Exception e) {
+                            promise.reject("find event error", e.getMessage());
+                        }
                     }
-                });
-                thread.start();
+                }));
+            } catch (Exception e) {
+                promise.reject("find event error", e.getMessage());
+            }
+        } else {
+            promise.reject("find event error", "you don't have permissions to read an event from the users calendar");
+        }
+
+    }
+
+    @ReactMethod
+    public void searchEvents(final String query, final Dynamic startDate, final Dynamic endDate, final ReadableArray calendars, final ReadableMap options, final Promise promise) {
+
+        if (this.haveCalendarPermissions(true)) {
+            try {
+                final EventSearch search = new EventSearch(query);
+                final long[] range = parseRange(startDate, endDate);
+                final String[] calendarIDs = calendarIdsFromArray(calendars);
+                final EventFields fields = eventFieldsFromOptions(options, false);
+                final int limit = options != null && options.hasKey("limit") ? Math.max(0, options.getInt("limit")) : DEFAULT_SEARCH_LIMIT;
+                final boolean byRelevance = options != null && options.hasKey("orderBy") && "relevance".equals(options.getString("orderBy"));
+                final String requestId = requestIdFromOptions(options);
+                final CancellationSignal signal = registerCancellation(requestId);
 
+                try {
+                    executor.executeRead(metrics.timed("searchEvents", new Runnable(){
+                        @Override
+                        public void run() {
+                            try {
+                                throwIfCanceled(signal);
+                                promise.resolve(searchEvents(search, range[0], range[1], calendarIDs, fields, limit, byRelevance, signal));
+                            } catch (OperationCanceledException e) {
+                                promise.reject("find event cancelled", "request " + requestId + " was cancelled");
+                            } catch (Exception e) {
+                                promise.reject("find event error", e.getMessage());
+                            } finally {
+                                releaseCancellation(requestId, signal);
+                            }
+                        }
+                    }));
+                } catch (Exception e) {
+                    releaseCancellation(requestId, signal);
+                    throw e;
+                }
             } catch (Exception e) {
                 promise.reject("find event error", e.getMessage());
             }
@@ -1396,19 +3096,138 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
 
     }
 
+    /**
+     * Synchronous read of the cached calendars, for first renders that can't wait for a
+     * bridge round trip. Returns null rather than querying the provider on the JS thread.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableArray getCachedCalendarsSync() {
+        if (!this.haveCalendarPermissions(true)) {
+            return null;
+        }
+
+        long started = metrics.start();
+        Map<String, WritableNativeMap> calendars = calendarCache.peekAll();
+        if (calendars == null) {
+            return null;
+        }
+
+        WritableNativeArray results = new WritableNativeArray();
+        for (WritableNativeMap calendar : calendars.values()) {
+            WritableNativeMap copy = new WritableNativeMap();
+            copy.merge(calendar);
+            results.pushMap(copy);
+        }
+        metrics.stop("method.getCachedCalendarsSync", started);
+        return results;
+    }
+
+    /**
+     * Synchronous read of a range already held by the range cache, null when any part of it
+     * would have to be loaded.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableArray getCachedEventsSync(Dynamic startDate, Dynamic endDate, ReadableArray calendars, Boolean isLite, ReadableMap options) {
+        if (!this.haveCalendarPermissions(true)) {
+            return null;
+        }
+
+        long started = metrics.start();
+        long[] range = parseRange(startDate, endDate);
+        WritableNativeArray results = rangeCache.peek(calendarIdsFromArray(calendars), eventFieldsFromOptions(options, isLite), range[0], range[1]);
+        metrics.stop("method.getCachedEventsSync", started);
+        return results;
+    }
+
     @ReactMethod
-    public void findById(final String eventID, final Promise promise) {
+    public void findAllEventsStreamed(final String queryHandle, final Dynamic startDate, final Dynamic endDate, final ReadableArray calendars, final Boolean isLite, final int pageSize, final Promise promise) {
+
         if (this.haveCalendarPermissions(true)) {
             try {
-                Thread thread = new Thread(new Runnable(){
+                final AtomicBoolean cancelled = new AtomicBoolean(false);
+                eventStreams.put(queryHandle, cancelled);
+
+                executor.executeRead(metrics.timed("findAllEventsStreamed", new Runnable(){
                     @Override
                     public void run() {
-                        WritableMap results = findEventById(eventID);
-                        promise.resolve(results);
+                        try {
+                            int count = streamEvents(queryHandle, startDate, endDate, calendars, isLite ? EventFields.LITE : EventFields.ALL, pageSize, cancelled);
+                            WritableNativeMap result = new WritableNativeMap();
+                            result.putInt("count", count);
+                            result.putBoolean("cancelled", cancelled.get());
+                            promise.resolve(result);
+                        } catch (Exception e) {
+                            promise.reject("find event error", e.getMessage());
+                        } finally {
+                            eventStreams.remove(queryHandle);
+                        }
                     }
-                });
-                thread.start();
+                }));
+
+            } catch (Exception e) {
+                eventStreams.remove(queryHandle);
+                promise.reject("find event error", e.getMessage());
+            }
+        } else {
+            promise.reject("find event error", "you don't have permissions to read an event from the users calendar");
+        }
+
+    }
+
+    @ReactMethod
+    public void cancelEventsStream(String queryHandle) {
+        AtomicBoolean cancelled = eventStreams.get(queryHandle);
+        if (cancelled != null) {
+            cancelled.set(true);
+        }
+    }
+
+    /**
+     * Cancels the read started with this request ID: its provider query is aborted and
+     * serialization stops before the next row. Unknown or finished requests are ignored.
+     */
+    @ReactMethod
+    public void cancel(String requestId) {
+        CancellationSignal signal = cancellations.remove(requestId);
+        if (signal != null) {
+            signal.cancel();
+        }
+    }
+
+    @ReactMethod
+    public void findById(final String eventID, final ReadableMap options, final Promise promise) {
+        if (this.haveCalendarPermissions(true)) {
+            try {
+                final EventFields fields = eventFieldsFromOptions(options, false);
+
+                final String requestId = requestIdFromOptions(options);
+                final String requestKey = "event|" + writeGeneration.get() + "|" + eventID + "|" + fields.key() + "|" + requestId;
+                if (!requests.join(requestKey, promise)) {
+                    return;
+                }
 
+                final CancellationSignal signal = registerCancellation(requestId);
+                try {
+                    executor.executeRead(metrics.timed("findById", new Runnable(){
+                        @Override
+                        public void run() {
+                            try {
+                                throwIfCanceled(signal);
+                                WritableMap results = findEventById(eventID, fields, signal);
+                                requests.resolve(requestKey, results);
+                            } catch (OperationCanceledException e) {
+                                requests.reject(requestKey, "find event cancelled", "request " + requestId + " was cancelled");
+                            } catch (Exception e) {
+                                requests.reject(requestKey, "find event error", e.getMessage());
+                            } finally {
+                                releaseCancellation(requestId, signal);
+                            }
+                        }
+                    }));
+                } catch (Exception e) {
+                    releaseCancellation(requestId, signal);
+                    requests.reject(requestKey, "find event error", e.getMessage());
+                }
             } catch (Exception e) {
                 promise.reject("find event error", e.getMessage());
             }
@@ -1422,22 +3241,188 @@ public class RNCalendarEvents extends ReactContextBaseJavaModule implements Perm
     public void removeEvent(final String eventID, final ReadableMap options, final Promise promise) {
         if (this.haveCalendarPermissions(false)) {
             try {
-                Thread thread = new Thread(new Runnable(){
+                executor.executeWrite(metrics.timed("removeEvent", new Runnable(){
                     @Override
                     public void run() {
                         boolean successful = removeEvent(eventID, options);
+                        onEventsWritten();
                         promise.resolve(successful);
                     }
-                });
-                thread.start();
+                }));
+            } catch (Exception e) {
+                promise.reject("error removing event", e.getMessage());
+            }
+        } else {
+            promise.reject("remove event error", "you don't have permissions to remove an event from the users calendar");
+        }
+
+    }
 
+    @ReactMethod
+    public void removeEvents(final ReadableArray eventIDs, final ReadableMap options, final Promise promise) {
+        if (this.haveCalendarPermissions(false)) {
+            try {
+                executor.executeWrite(metrics.timed("removeEvents", new Runnable(){
+                    @Override
+                    public void run() {
+                        try {
+                            int removed;
+                            try {
+                                removed = removeEvents(eventIDs, options);
+                            } finally {
+                                onEventsWritten();
+                            }
+                            promise.resolve(removed);
+                        } catch (Exception e) {
+                            promise.reject("error removing event", e.getMessage());
+                        }
+                    }
+                }));
             } catch (Exception e) {
                 promise.reject("error removing event", e.getMessage());
             }
         } else {
             promise.reject("remove event error", "you don't have permissions to remove an event from the users calendar");
         }
+    }
+
+    @ReactMethod
+    public void exportEvents(final Dynamic startDate, final Dynamic endDate, final ReadableArray calendars, final String path, final Promise promise) {
+        if (this.haveCalendarPermissions(true)) {
+            try {
+                final long[] range = parseRange(startDate, endDate);
+                final String[] calendarIDs = calendarIdsFromArray(calendars);
+                final File file = archiveFile(path);
+
+                executor.executeRead(metrics.timed("exportEvents", new Runnable(){
+                    @Override
+                    public void run() {
+                        try {
+                            promise.resolve(exportEvents(range[0], range[1], calendarIDs, file));
+                        } catch (Exception e) {
+                            promise.reject("export events error", e.getMessage());
+                        }
+                    }
+                }));
+            } catch (Exception e) {
+                promise.reject("export events error", e.getMessage());
+            }
+        } else {
+            promise.reject("export events error", "you don't have permissions to read an event from the users calendar");
+        }
+    }
+
+    @ReactMethod
+    public void importEvents(final String path, final ReadableMap options, final Promise promise) {
+        if (this.haveCalendarPermissions(false)) {
+            try {
+                final File file = archiveFile(path);
+                final String calendarID = options.hasKey("calendarId") ? options.getString("calendarId") : null;
+                final int chunkSize = options.hasKey("chunkSize") ? options.getInt("chunkSize") : DEFAULT_BATCH_CHUNK_SIZE;
+
+                executor.executeWrite(metrics.timed("importEvents", new Runnable(){
+                    @Override
+                    public void run() {
+                        ArrayList<String> importedEventIDs = new ArrayList<>();
+                        try {
+                            WritableNativeMap result;
+                            try {
+                                result = importEvents(file, calendarID, chunkSize, importedEventIDs);
+                            } finally {
+                                // earlier chunks may have gone through even when a later one failed
+                                onEventsWritten();
+                            }
+                            promise.resolve(result);
+                        } catch (Exception e) {
+                            // the events of the transactions that went through, so they can be removed before retrying
+                            WritableNativeMap userInfo = new WritableNativeMap();
+                            userInfo.putArray("importedIds", Arguments.makeNativeArray(new ArrayList<Object>(importedEventIDs)));
+                            promise.reject("import events error", e.getMessage(), userInfo);
+                        }
+                    }
+                }));
+            } catch (Exception e) {
+                promise.reject("import events error", e.getMessage());
+            }
+        } else {
+            promise.reject("import events error", "you don't have permissions to add an event to the users calendar");
+        }
+    }
+
+    @ReactMethod
+    public void startObservingChanges(final double debounceMs, final Promise promise) {
+        if (this.haveCalendarPermissions(true)) {
+            try {
+                changeFeed.start((long) debounceMs);
+                promise.resolve(null);
+            } catch (Exception e) {
+                promise.reject("observe events error", e.getMessage());
+            }
+        } else {
+            promise.reject("observe events error", "you don't have permissions to read an event from the users calendar");
+        }
+    }
+
+    @ReactMethod
+    public void stopObservingChanges() {
+        changeFeed.stop();
+    }
+
+    @ReactMethod
+    public void clearEventsSnapshots(final Promise promise) {
+        try {
+            executor.executeWrite(metrics.timed("clearEventsSnapshots", new Runnable(){
+                @Override
+                public void run() {
+                    try {
+                        snapshots.clear();
+                        promise.resolve(null);
+                    } catch (Exception e) {
+                        promise.reject("clear snapshots error", e.getMessage());
+                    }
+                }
+            }));
+        } catch (Exception e) {
+            promise.reject("clear snapshots error", e.getMessage());
+        }
+    }
+
+    @ReactMethod
+    public void setMetricsEnabled(boolean enabled) {
+        metrics.setEnabled(enabled);
+    }
+
+    @ReactMethod
+    public void getMetrics(boolean reset, Promise promise) {
+        promise.resolve(metrics.snapshot(reset));
+    }
+
+    /**
+     * Enables the metrics and emits their snapshot every {@code intervalMs}, resetting
+     * them, so they can be forwarded to an external telemetry.
+     */
+    @ReactMethod
+    public void startMetricsReports(double intervalMs) {
+        stopMetricsReports();
+        metrics.setEnabled(true);
+
+        final long interval = Math.max(MIN_METRICS_REPORT_INTERVAL, (long) intervalMs);
+        metricsReport = new Runnable() {
+            @Override
+            public void run() {
+                sendEvent(METRICS_REPORT, metrics.snapshot(true));
+                metricsHandler.postDelayed(this, interval);
+            }
+        };
+        metricsHandler.postDelayed(metricsReport, interval);
+    }
 
+    @ReactMethod
+    public void stopMetricsReports() {
+        if (metricsReport != null) {
+            metricsHandler.removeCallbacks(metricsReport);
+            metricsReport = null;
+        }
     }
 
     @ReactMethod
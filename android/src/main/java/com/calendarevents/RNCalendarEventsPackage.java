@@ -11,6 +11,20 @@ import java.util.List;
 
 public class RNCalendarEventsPackage implements ReactPackage {
 
+    private final int readParallelism;
+
+    public RNCalendarEventsPackage() {
+        this(CalendarExecutor.DEFAULT_READ_PARALLELISM);
+    }
+
+    /**
+     * @param readParallelism maximum number of calendar reads running at the same time,
+     *                        writes are always applied one at a time
+     */
+    public RNCalendarEventsPackage(int readParallelism) {
+        this.readParallelism = readParallelism;
+    }
+
     @Override
     public List<ViewManager> createViewManagers(ReactApplicationContext reactContext) {
         return Collections.emptyList();
@@ -21,7 +35,7 @@ public class RNCalendarEventsPackage implements ReactPackage {
             ReactApplicationContext reactContext) {
         List<NativeModule> modules = new ArrayList<>();
 
-        modules.add(new RNCalendarEvents(reactContext));
+        modules.add(new RNCalendarEvents(reactContext, readParallelism));
 
         return modules;
     }
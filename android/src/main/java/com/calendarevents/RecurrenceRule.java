@@ -0,0 +1,154 @@
+package com.calendarevents;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Immutable view of the RRULE parts the module exposes to JS.
+ *
+ * Every instance of a recurring series carries the same RRULE string, so parsed
+ * rules are kept in a small LRU cache keyed by that string: expanding a weekly
+ * series over a year parses its rule once instead of once per instance.
+ */
+final class RecurrenceRule {
+
+    private static final int CACHE_SIZE = 256;
+
+    private static final Map<String, RecurrenceRule> cache = new LinkedHashMap<String, RecurrenceRule>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RecurrenceRule> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /** Lower case frequency, e.g. "weekly", or null when the rule has no FREQ. */
+    final String frequency;
+    final Integer interval;
+    final Integer occurrence;
+    /** Lower case BYDAY values, or null when the rule has no BYDAY. */
+    final List<String> daysOfWeek;
+    /** UNTIL as wall clock millis, the zone is applied when serializing. */
+    private final Long until;
+
+    private RecurrenceRule(String frequency, Integer interval, Integer occurrence, List<String> daysOfWeek, Long until) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.occurrence = occurrence;
+        this.daysOfWeek = daysOfWeek;
+        this.until = until;
+    }
+
+    static RecurrenceRule get(String rrule) {
+        synchronized (cache) {
+            RecurrenceRule rule = cache.get(rrule);
+            if (rule != null) {
+                return rule;
+            }
+        }
+
+        RecurrenceRule rule = parse(rrule);
+
+        synchronized (cache) {
+            cache.put(rrule, rule);
+        }
+        return rule;
+    }
+
+    /**
+     * Returns the UNTIL date as an ISO string, reading its wall clock time in the given zone.
+     */
+    String getEndDate(TimeZone zone) {
+        return until != null ? DateFormatter.formatUTC(DateFormatter.fromWallClock(until, zone)) : null;
+    }
+
+    /**
+     * Single pass over {@code KEY=VALUE;KEY=VALUE}, only the values we expose are copied out.
+     * Malformed values are skipped rather than failing the whole event.
+     */
+    static RecurrenceRule parse(String rrule) {
+        String frequency = null;
+        Integer interval = null;
+        Integer occurrence = null;
+        List<String> daysOfWeek = null;
+        Long until = null;
+
+        int length = rrule.length();
+        int start = 0;
+
+        while (start < length) {
+            int end = rrule.indexOf(';', start);
+            if (end == -1) {
+                end = length;
+            }
+
+            int separator = rrule.indexOf('=', start);
+            if (separator != -1 && separator < end) {
+                int keyLength = separator - start;
+                int valueStart = separator + 1;
+
+                if (isKey(rrule, start, keyLength, "FREQ")) {
+                    frequency = rrule.substring(valueStart, end).toLowerCase();
+                } else if (isKey(rrule, start, keyLength, "INTERVAL")) {
+                    interval = parseInt(rrule, valueStart, end);
+                } else if (isKey(rrule, start, keyLength, "COUNT")) {
+                    occurrence = parseInt(rrule, valueStart, end);
+                } else if (isKey(rrule, start, keyLength, "UNTIL")) {
+                    try {
+                        until = DateFormatter.parseRRuleDate(rrule.substring(valueStart, end), DateFormatter.UTC);
+                    } catch (ParseException e) {
+                        e.printStackTrace();
+                    }
+                } else if (isKey(rrule, start, keyLength, "BYDAY")) {
+                    daysOfWeek = parseList(rrule, valueStart, end);
+                }
+            }
+
+            start = end + 1;
+        }
+
+        return new RecurrenceRule(frequency, interval, occurrence, daysOfWeek, until);
+    }
+
+    private static boolean isKey(String rrule, int start, int length, String key) {
+        return length == key.length() && rrule.regionMatches(true, start, key, 0, length);
+    }
+
+    private static Integer parseInt(String rrule, int start, int end) {
+        if (start == end) {
+            return null;
+        }
+
+        boolean negative = rrule.charAt(start) == '-';
+        if (negative && start + 1 == end) {
+            return null;
+        }
+
+        int result = 0;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            char c = rrule.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return negative ? -result : result;
+    }
+
+    private static List<String> parseList(String rrule, int start, int end) {
+        ArrayList<String> values = new ArrayList<>();
+        int valueStart = start;
+
+        for (int i = start; i <= end; i++) {
+            if (i == end || rrule.charAt(i) == ',') {
+                values.add(rrule.substring(valueStart, i).toLowerCase());
+                valueStart = i + 1;
+            }
+        }
+        return Collections.unmodifiableList(values);
+    }
+}
@@ -0,0 +1,89 @@
+package com.calendarevents;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.WritableNativeArray;
+import com.facebook.react.bridge.WritableNativeMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Single-flight for read requests: while a request is running, identical ones
+ * only register their promise and are resolved with its result, so a screen
+ * mounting several components asking for the same range costs one query.
+ *
+ * Keys must hold the normalized arguments. Native results are consumed once
+ * resolved, so every extra waiter receives its own copy.
+ */
+class RequestCoalescer {
+
+    private final HashMap<String, ArrayList<Promise>> inFlight = new HashMap<>();
+
+    /**
+     * Registers the promise under the key. Returns true when the caller must run the
+     * request and complete it, false when an identical request is already running.
+     */
+    synchronized boolean join(String key, Promise promise) {
+        ArrayList<Promise> waiters = inFlight.get(key);
+        if (waiters != null) {
+            waiters.add(promise);
+            return false;
+        }
+
+        waiters = new ArrayList<>();
+        waiters.add(promise);
+        inFlight.put(key, waiters);
+        return true;
+    }
+
+    /**
+     * Resolves every promise waiting on the key with the result, a native array,
+     * a native map or null.
+     */
+    void resolve(String key, Object result) {
+        ArrayList<Promise> waiters;
+        synchronized (this) {
+            waiters = inFlight.remove(key);
+        }
+        if (waiters == null) {
+            return;
+        }
+
+        // copies are made before the original is handed over and consumed
+        Object[] results = new Object[waiters.size()];
+        for (int i = 1; i < results.length; i++) {
+            results[i] = copy(result);
+        }
+        results[0] = result;
+
+        for (int i = 0; i < results.length; i++) {
+            waiters.get(i).resolve(results[i]);
+        }
+    }
+
+    void reject(String key, String code, String message) {
+        ArrayList<Promise> waiters;
+        synchronized (this) {
+            waiters = inFlight.remove(key);
+        }
+        if (waiters == null) {
+            return;
+        }
+
+        for (Promise promise : waiters) {
+            promise.reject(code, message);
+        }
+    }
+
+    private static Object copy(Object result) {
+        if (result instanceof WritableNativeArray) {
+            return Arguments.makeNativeArray(((WritableNativeArray) result).toArrayList());
+        } else if (result instanceof WritableNativeMap) {
+            WritableNativeMap copy = new WritableNativeMap();
+            copy.merge((WritableNativeMap) result);
+            return copy;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,92 @@
+package com.calendarevents;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds provider selections with {@code ?} placeholders only: a fixed clause,
+ * optionally followed by a {@code column IN (?,?,...)} clause.
+ *
+ * Values always go through the selection arguments, so the SQL only depends on
+ * the number of IN values. Templates are cached by that number, which lets the
+ * provider reuse its prepared statements across calls instead of compiling a
+ * new one for every date range and calendar list.
+ */
+final class SelectionBuilder {
+
+    private static final ConcurrentHashMap<String, SelectionBuilder> inBuilders = new ConcurrentHashMap<>();
+
+    private final String clause;
+    private final String inColumn;
+    private final ConcurrentHashMap<Integer, String> templates = new ConcurrentHashMap<>();
+
+    /**
+     * @param clause   fixed clause, or null when the selection is only the IN clause
+     * @param inColumn column matched against the IN values, or null when there are none
+     */
+    SelectionBuilder(String clause, String inColumn) {
+        this.clause = clause;
+        this.inColumn = inColumn;
+    }
+
+    /**
+     * Returns the shared builder of {@code column IN (...)} selections.
+     */
+    static SelectionBuilder in(String column) {
+        SelectionBuilder builder = inBuilders.get(column);
+        if (builder == null) {
+            builder = new SelectionBuilder(null, column);
+            SelectionBuilder existing = inBuilders.putIfAbsent(column, builder);
+            if (existing != null) {
+                builder = existing;
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Returns the selection for {@code inCount} IN values, the IN clause being left out when there are none.
+     */
+    String build(int inCount) {
+        if (inColumn == null) {
+            inCount = 0;
+        }
+
+        String template = templates.get(inCount);
+        if (template == null) {
+            template = createTemplate(inCount);
+            templates.putIfAbsent(inCount, template);
+        }
+        return template;
+    }
+
+    /**
+     * Concatenates the fixed clause arguments with the IN values.
+     */
+    static String[] args(String[] clauseArgs, String[] inArgs) {
+        String[] args = new String[clauseArgs.length + inArgs.length];
+        System.arraycopy(clauseArgs, 0, args, 0, clauseArgs.length);
+        System.arraycopy(inArgs, 0, args, clauseArgs.length, inArgs.length);
+        return args;
+    }
+
+    private String createTemplate(int inCount) {
+        StringBuilder selection = new StringBuilder("(");
+
+        if (clause != null) {
+            selection.append('(').append(clause).append(')');
+        }
+
+        if (inCount > 0) {
+            if (clause != null) {
+                selection.append(" AND ");
+            }
+            selection.append('(').append(inColumn).append(" IN (");
+            for (int i = 0; i < inCount; i++) {
+                selection.append(i == 0 ? "?" : ",?");
+            }
+            selection.append("))");
+        }
+
+        return selection.append(')').toString();
+    }
+}
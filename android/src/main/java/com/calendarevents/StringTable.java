@@ -0,0 +1,37 @@
+package com.calendarevents;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Deduplicated strings of a compact result. Columns hold indexes into the table
+ * instead of the strings, so a title shared by every instance of a recurring
+ * event crosses the bridge once.
+ */
+final class StringTable {
+
+    private final HashMap<String, Integer> indexes = new HashMap<>();
+    private final ArrayList<String> strings = new ArrayList<>();
+
+    /**
+     * Returns the index of the string, adding it on first use, or -1 for null.
+     */
+    int indexOf(String value) {
+        if (value == null) {
+            return -1;
+        }
+
+        Integer index = indexes.get(value);
+        if (index == null) {
+            index = strings.size();
+            indexes.put(value, index);
+            strings.add(value);
+        }
+        return index;
+    }
+
+    List<String> strings() {
+        return strings;
+    }
+}
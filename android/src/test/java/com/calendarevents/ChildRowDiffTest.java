@@ -0,0 +1,144 @@
+package com.calendarevents;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentValues;
+import android.net.Uri;
+import android.provider.CalendarContract;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, manifest = Config.NONE)
+public class ChildRowDiffTest {
+
+    private final Uri uri = CalendarContract.Reminders.CONTENT_URI;
+    private static final String[] KEY = {CalendarContract.Reminders.MINUTES};
+
+    @Test
+    public void writesNothingForEmptyInput() {
+        assertTrue(diff(Collections.<ContentValues>emptyList(), Collections.<ContentValues>emptyList()).isEmpty());
+    }
+
+    @Test
+    public void insertsEveryWantedRowWhenNoneExist() {
+        List<ContentProviderOperation> operations = diff(Collections.<ContentValues>emptyList(),
+                Arrays.asList(reminder(null, 10, 1), reminder(null, 30, 1)));
+
+        assertEquals(2, operations.size());
+        for (ContentProviderOperation operation : operations) {
+            assertTrue(operation.isInsert());
+            assertEquals(uri, operation.getUri());
+        }
+        assertEquals(Integer.valueOf(10), values(operations.get(0)).getAsInteger(CalendarContract.Reminders.MINUTES));
+    }
+
+    @Test
+    public void deletesEveryExistingRowWhenNoneAreWanted() {
+        List<ContentProviderOperation> operations = diff(Arrays.asList(reminder(5L, 10, 1), reminder(6L, 30, 1)),
+                Collections.<ContentValues>emptyList());
+
+        assertEquals(2, operations.size());
+        for (ContentProviderOperation operation : operations) {
+            assertTrue(operation.isDelete());
+        }
+    }
+
+    @Test
+    public void writesNothingForUnchangedRows() {
+        List<ContentProviderOperation> operations = diff(Arrays.asList(reminder(5L, 10, 1), reminder(6L, 30, 1)),
+                Arrays.asList(reminder(null, 30, 1), reminder(null, 10, 1)));
+
+        assertTrue(operations.isEmpty());
+    }
+
+    @Test
+    public void updatesOnlyChangedColumns() {
+        List<ContentProviderOperation> operations = diff(Collections.singletonList(reminder(5L, 10, 1)),
+                Collections.singletonList(reminder(null, 10, 2)));
+
+        assertEquals(1, operations.size());
+        ContentProviderOperation operation = operations.get(0);
+        assertTrue(operation.isUpdate());
+        assertEquals(Uri.withAppendedPath(uri, "5"), operation.getUri());
+
+        ContentValues changes = values(operation);
+        assertEquals(1, changes.size());
+        assertEquals("2", changes.getAsString(CalendarContract.Reminders.METHOD));
+    }
+
+    @Test
+    public void matchesDuplicateKeysOneToOne() {
+        // two existing rows share a key, only one of them is still wanted
+        List<ContentProviderOperation> operations = diff(Arrays.asList(reminder(5L, 10, 1), reminder(6L, 10, 1)),
+                Arrays.asList(reminder(null, 10, 1), reminder(null, 15, 1)));
+
+        assertEquals(2, operations.size());
+        assertTrue(operations.get(0).isInsert());
+        assertTrue(operations.get(1).isDelete());
+        assertEquals(Uri.withAppendedPath(uri, "6"), operations.get(1).getUri());
+    }
+
+    @Test
+    public void matchesNullKeys() {
+        String[] key = {CalendarContract.Attendees.ATTENDEE_EMAIL, CalendarContract.Attendees.ATTENDEE_NAME};
+        ContentValues existing = new ContentValues();
+        existing.put(CalendarContract.Attendees._ID, 7L);
+        existing.put(CalendarContract.Attendees.ATTENDEE_EMAIL, "a@example.com");
+        existing.putNull(CalendarContract.Attendees.ATTENDEE_NAME);
+        ContentValues wanted = new ContentValues();
+        wanted.put(CalendarContract.Attendees.ATTENDEE_EMAIL, "a@example.com");
+        wanted.putNull(CalendarContract.Attendees.ATTENDEE_NAME);
+
+        ArrayList<ContentProviderOperation> operations = new ArrayList<>();
+        ChildRowDiff.appendOperations(operations, CalendarContract.Attendees.CONTENT_URI, key,
+                Collections.singletonList(existing), Collections.singletonList(wanted));
+
+        assertTrue(operations.isEmpty());
+    }
+
+    @Test
+    public void appendsAfterExistingOperations() {
+        ArrayList<ContentProviderOperation> operations = new ArrayList<>();
+        operations.add(ContentProviderOperation.newDelete(uri).build());
+
+        ChildRowDiff.appendOperations(operations, uri, KEY, Collections.<ContentValues>emptyList(),
+                Collections.singletonList(reminder(null, 10, 1)));
+
+        assertEquals(2, operations.size());
+        assertTrue(operations.get(0).isDelete());
+        assertTrue(operations.get(1).isInsert());
+    }
+
+    private List<ContentProviderOperation> diff(List<ContentValues> existing, List<ContentValues> wanted) {
+        ArrayList<ContentProviderOperation> operations = new ArrayList<>();
+        ChildRowDiff.appendOperations(operations, uri, KEY, existing, wanted);
+        return operations;
+    }
+
+    private static ContentValues reminder(Long id, int minutes, int method) {
+        ContentValues values = new ContentValues();
+        if (id != null) {
+            values.put(CalendarContract.Reminders._ID, id);
+        }
+        values.put(CalendarContract.Reminders.EVENT_ID, 1L);
+        values.put(CalendarContract.Reminders.MINUTES, minutes);
+        values.put(CalendarContract.Reminders.METHOD, method);
+        return values;
+    }
+
+    private static ContentValues values(ContentProviderOperation operation) {
+        return operation.resolveValueBackReferences(new ContentProviderResult[0], 0);
+    }
+}
@@ -0,0 +1,91 @@
+package com.calendarevents;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class DateFormatterTest {
+
+    private static final TimeZone PARIS = TimeZone.getTimeZone("Europe/Paris");
+
+    @Test
+    public void formatsLikeSimpleDateFormat() {
+        SimpleDateFormat iso = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+        iso.setTimeZone(DateFormatter.UTC);
+
+        long[] samples = {0L, 1L, 999L, 951782400000L, 1583020799999L, 4102444800000L, -1L, -86400001L};
+        for (long millis : samples) {
+            assertEquals(iso.format(millis), DateFormatter.formatUTC(millis));
+        }
+    }
+
+    @Test
+    public void parsesWhatItFormats() throws ParseException {
+        for (long millis = -100000000000L; millis < 4000000000000L; millis += 7654321987L) {
+            assertEquals(millis, DateFormatter.parseUTC(DateFormatter.formatUTC(millis)));
+        }
+    }
+
+    @Test
+    public void parsesLeniently() throws ParseException {
+        // out of range months and days roll over, trailing characters are ignored
+        assertEquals(DateFormatter.parseUTC("2021-01-01T00:00:00.000Z"),
+                DateFormatter.parseUTC("2020-13-01T00:00:00.000Z"));
+        assertEquals(DateFormatter.parseUTC("2020-03-01T00:00:00.000Z"),
+                DateFormatter.parseUTC("2020-02-30T00:00:00.000Z"));
+        assertEquals(DateFormatter.parseUTC("2020-01-05T03:04:05.006Z"),
+                DateFormatter.parseUTC("2020-1-5T3:4:5.6Zjunk"));
+    }
+
+    @Test
+    public void parsesInZone() throws ParseException {
+        SimpleDateFormat iso = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+        iso.setTimeZone(PARIS);
+
+        // winter, summer and both DST transitions
+        String[] samples = {
+                "2020-01-15T12:00:00.000Z",
+                "2020-07-15T12:00:00.000Z",
+                "2020-03-29T02:30:00.000Z",
+                "2020-10-25T02:30:00.000Z",
+        };
+        for (String sample : samples) {
+            assertEquals(sample, iso.parse(sample).getTime(), DateFormatter.parse(sample, PARIS));
+        }
+    }
+
+    @Test
+    public void rejectsMalformedDates() {
+        String[] samples = {null, "", "2020", "2020-01-01", "2020-01-01 00:00:00.000Z", "2020-01-01T00:00:00.000", "x020-01-01T00:00:00.000Z"};
+        for (String sample : samples) {
+            try {
+                DateFormatter.parseUTC(sample);
+                fail("Parsed " + sample);
+            } catch (ParseException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void roundTripsRRuleDates() throws ParseException {
+        assertEquals("20200315T000000Z", DateFormatter.formatRRuleDate(DateFormatter.parseUTC("2020-03-15T00:00:00.000Z"), DateFormatter.UTC));
+        assertEquals(DateFormatter.parseUTC("2020-03-15T00:00:00.000Z"), DateFormatter.parseRRuleDate("20200315T000000Z", DateFormatter.UTC));
+
+        long millis = DateFormatter.parseUTC("2020-07-15T10:00:00.000Z");
+        String local = DateFormatter.formatRRuleDate(millis, PARIS);
+        assertEquals("20200715T120000Z", local);
+        assertEquals(millis, DateFormatter.parseRRuleDate(local, PARIS));
+    }
+
+    @Test(expected = ParseException.class)
+    public void rejectsShortRRuleFields() throws ParseException {
+        DateFormatter.parseRRuleDate("2020315T000000Z", DateFormatter.UTC);
+    }
+}
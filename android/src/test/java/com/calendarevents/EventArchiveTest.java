@@ -0,0 +1,206 @@
+package com.calendarevents;
+
+import android.database.MatrixCursor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, manifest = Config.NONE)
+public class EventArchiveTest {
+
+    private static final String[][] COLUMNS = {
+            null,
+            {"title", "dtstart", "description", "eventColor"},
+            {"minutes"},
+            {"attendeeEmail", "attendeeName"}
+    };
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTripsEmptyArchive() throws IOException {
+        File file = folder.newFile();
+        EventArchive.Writer writer = new EventArchive.Writer(file, COLUMNS);
+        writer.close();
+        assertEquals(file.length(), writer.size());
+
+        EventArchive.Reader reader = new EventArchive.Reader(file);
+        try {
+            assertNull(reader.next());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void roundTripsRows() throws IOException {
+        char[] longText = new char[100000];
+        Arrays.fill(longText, '\u00e9');
+        String description = new String(longText);
+
+        MatrixCursor events = new MatrixCursor(COLUMNS[EventArchive.EVENT]);
+        events.addRow(new Object[] {"Caf\u00e9 \ud83c\udf70", 1500000000000L, null, 0.5});
+        events.addRow(new Object[] {"", -1L, description, null});
+        MatrixCursor reminders = new MatrixCursor(COLUMNS[EventArchive.REMINDER]);
+        reminders.addRow(new Object[] {10L});
+        MatrixCursor attendees = new MatrixCursor(COLUMNS[EventArchive.ATTENDEE]);
+        attendees.addRow(new Object[] {"a@example.com", null});
+
+        File file = folder.newFile();
+        EventArchive.Writer writer = new EventArchive.Writer(file, COLUMNS);
+        events.moveToNext();
+        writer.writeRow(EventArchive.EVENT, 1, events);
+        reminders.moveToNext();
+        writer.writeRow(EventArchive.REMINDER, 1, reminders);
+        attendees.moveToNext();
+        writer.writeRow(EventArchive.ATTENDEE, 1, attendees);
+        events.moveToNext();
+        writer.writeRow(EventArchive.EVENT, Long.MAX_VALUE, events);
+        writer.close();
+        assertEquals(file.length(), writer.size());
+
+        EventArchive.Reader reader = new EventArchive.Reader(file);
+        try {
+            EventArchive.Row row = reader.next();
+            assertEquals(EventArchive.EVENT, row.type);
+            assertEquals(1, row.eventID);
+            assertEquals(3, row.values.size());
+            assertEquals("Caf\u00e9 \ud83c\udf70", row.values.getAsString("title"));
+            assertEquals(Long.valueOf(1500000000000L), row.values.getAsLong("dtstart"));
+            assertFalse(row.values.containsKey("description"));
+            assertEquals(Double.valueOf(0.5), row.values.getAsDouble("eventColor"));
+
+            row = reader.next();
+            assertEquals(EventArchive.REMINDER, row.type);
+            assertEquals(Long.valueOf(10), row.values.getAsLong("minutes"));
+
+            row = reader.next();
+            assertEquals(EventArchive.ATTENDEE, row.type);
+            assertEquals(1, row.values.size());
+            assertEquals("a@example.com", row.values.getAsString("attendeeEmail"));
+
+            row = reader.next();
+            assertEquals(EventArchive.EVENT, row.type);
+            assertEquals(Long.MAX_VALUE, row.eventID);
+            assertEquals("", row.values.getAsString("title"));
+            assertEquals(Long.valueOf(-1), row.values.getAsLong("dtstart"));
+            assertEquals(description, row.values.getAsString("description"));
+
+            assertNull(reader.next());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void rejectsEmptyFile() throws IOException {
+        assertUnreadable(folder.newFile(), "Truncated events archive");
+    }
+
+    @Test
+    public void rejectsOtherFiles() throws IOException {
+        assertUnreadable(file(ByteBuffer.allocate(16).putInt(0x504b0304)), "Not an events archive");
+    }
+
+    @Test
+    public void rejectsOtherVersions() throws IOException {
+        assertUnreadable(file(ByteBuffer.allocate(16).putInt(0x524e4358).putInt(2)), "Unsupported events archive version 2");
+    }
+
+    @Test
+    public void rejectsTruncatedHeader() throws IOException {
+        File file = archive();
+        RandomAccessFile truncated = new RandomAccessFile(file, "rw");
+        try {
+            truncated.setLength(20);
+        } finally {
+            truncated.close();
+        }
+
+        assertUnreadable(file, "Truncated events archive");
+    }
+
+    @Test
+    public void rejectsCorruptedColumnName() throws IOException {
+        // event type, one column, whose name is longer than the file
+        assertUnreadable(file(ByteBuffer.allocate(32).putInt(0x524e4358).putInt(1)
+                .put(EventArchive.EVENT).putShort((short) 1).putInt(1000)), "Corrupted events archive");
+        assertUnreadable(file(ByteBuffer.allocate(32).putInt(0x524e4358).putInt(1)
+                .put(EventArchive.EVENT).putShort((short) 1).putInt(-1)), "Corrupted events archive");
+    }
+
+    @Test
+    public void rejectsCorruptedRowTypes() throws IOException {
+        assertUnreadable(file(ByteBuffer.allocate(32).putInt(0x524e4358).putInt(1)
+                .put(EventArchive.ATTENDEE).putShort((short) 0)), "Corrupted events archive");
+        assertUnreadable(file(ByteBuffer.allocate(32).putInt(0x524e4358).putInt(1)
+                .put(EventArchive.EVENT).putShort((short) -1)), "Corrupted events archive");
+    }
+
+    @Test
+    public void rejectsCorruptedRows() throws IOException {
+        File file = archive();
+        RandomAccessFile corrupted = new RandomAccessFile(file, "rw");
+        try {
+            // the END marker becomes an unknown row type
+            corrupted.seek(file.length() - 1);
+            corrupted.write(42);
+        } finally {
+            corrupted.close();
+        }
+
+        EventArchive.Reader reader = new EventArchive.Reader(file);
+        try {
+            reader.next();
+            fail("Read a corrupted row");
+        } catch (IOException e) {
+            assertEquals("Corrupted events archive", e.getMessage());
+        } finally {
+            reader.close();
+        }
+    }
+
+    private File archive() throws IOException {
+        File file = folder.newFile();
+        new EventArchive.Writer(file, COLUMNS).close();
+        return file;
+    }
+
+    private File file(ByteBuffer content) throws IOException {
+        File file = folder.newFile();
+        FileOutputStream stream = new FileOutputStream(file);
+        try {
+            stream.write(content.array(), 0, content.position());
+        } finally {
+            stream.close();
+        }
+        return file;
+    }
+
+    private static void assertUnreadable(File file, String message) {
+        try {
+            new EventArchive.Reader(file).close();
+            fail("Read " + file);
+        } catch (IOException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+}
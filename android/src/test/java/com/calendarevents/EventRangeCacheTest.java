@@ -0,0 +1,173 @@
+package com.calendarevents;
+
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.provider.CalendarContract;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, manifest = Config.NONE)
+public class EventRangeCacheTest {
+
+    private static final String[] CALENDARS = {"1"};
+
+    private final List<long[]> loads = new ArrayList<>();
+    private int instancesPerLoad;
+    private boolean cancelLoads;
+    private EventRangeCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new EventRangeCache(RuntimeEnvironment.getApplication().getContentResolver(), new EventRangeCache.Loader() {
+            @Override
+            public List<EventRangeCache.Instance> loadInstances(String[] calendarIDs, EventFields fields, long start, long end, CancellationSignal signal) {
+                if (cancelLoads) {
+                    throw new OperationCanceledException();
+                }
+                loads.add(new long[]{start, end});
+
+                ArrayList<EventRangeCache.Instance> instances = new ArrayList<>();
+                for (int i = 0; i < instancesPerLoad; i++) {
+                    instances.add(new EventRangeCache.Instance(start + ":" + i, start, start + 1, null));
+                }
+                return instances;
+            }
+        });
+    }
+
+    @Test
+    public void loadsNothingForEmptyRange() {
+        cache.prefetch(CALENDARS, EventFields.ALL, 100, 100, null);
+
+        assertLoads();
+    }
+
+    @Test
+    public void loadsOnlyMissingParts() {
+        cache.prefetch(CALENDARS, EventFields.ALL, 100, 200, null);
+        cache.prefetch(CALENDARS, EventFields.ALL, 300, 400, null);
+        cache.prefetch(CALENDARS, EventFields.ALL, 50, 450, null);
+
+        assertLoads(100, 200, 300, 400, 50, 100, 200, 300, 400, 450);
+    }
+
+    @Test
+    public void mergesOverlappingRanges() {
+        cache.prefetch(CALENDARS, EventFields.ALL, 100, 200, null);
+        cache.prefetch(CALENDARS, EventFields.ALL, 150, 300, null);
+        // touching ranges merge as well
+        cache.prefetch(CALENDARS, EventFields.ALL, 300, 350, null);
+        cache.prefetch(CALENDARS, EventFields.ALL, 100, 350, null);
+        cache.prefetch(CALENDARS, EventFields.ALL, 120, 130, null);
+
+        assertLoads(100, 200, 200, 300, 300, 350);
+    }
+
+    @Test
+    public void mergesRangesBridgedByANewOne() {
+        cache.prefetch(CALENDARS, EventFields.ALL, 100, 200, null);
+        cache.prefetch(CALENDARS, EventFields.ALL, 300, 400, null);
+        cache.prefetch(CALENDARS, EventFields.ALL, 500, 600, null);
+        cache.prefetch(CALENDARS, EventFields.ALL, 150, 550, null);
+        loads.clear();
+
+        cache.prefetch(CALENDARS, EventFields.ALL, 100, 600, null);
+        assertLoads();
+    }
+
+    @Test
+    public void keysShapesByCalendarSetAndFields() {
+        cache.prefetch(new String[]{"1", "2"}, EventFields.ALL, 100, 200, null);
+        cache.prefetch(new String[]{"2", "1"}, EventFields.ALL, 100, 200, null);
+        cache.prefetch(new String[]{"1", "2"}, EventFields.LITE, 100, 200, null);
+        cache.prefetch(new String[]{"1"}, EventFields.ALL, 100, 200, null);
+
+        assertLoads(100, 200, 100, 200, 100, 200);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedShape() {
+        for (int i = 0; i < 9; i++) {
+            cache.prefetch(new String[]{Integer.toString(i)}, EventFields.ALL, 100, 200, null);
+        }
+        loads.clear();
+
+        cache.prefetch(new String[]{"8"}, EventFields.ALL, 100, 200, null);
+        assertLoads();
+        cache.prefetch(new String[]{"0"}, EventFields.ALL, 100, 200, null);
+        assertLoads(100, 200);
+    }
+
+    @Test
+    public void dropsShapesOverTheInstanceLimit() {
+        instancesPerLoad = 10001;
+        cache.prefetch(CALENDARS, EventFields.ALL, 100, 200, null);
+        cache.prefetch(CALENDARS, EventFields.ALL, 100, 200, null);
+
+        assertLoads(100, 200, 100, 200);
+    }
+
+    @Test
+    public void dropsEverythingOnInvalidate() {
+        cache.prefetch(CALENDARS, EventFields.ALL, 100, 200, null);
+        cache.invalidate();
+        cache.prefetch(CALENDARS, EventFields.ALL, 100, 200, null);
+
+        assertLoads(100, 200, 100, 200);
+    }
+
+    @Test
+    public void dropsEverythingOnProviderChange() {
+        cache.prefetch(CALENDARS, EventFields.ALL, 100, 200, null);
+        RuntimeEnvironment.getApplication().getContentResolver().notifyChange(CalendarContract.Events.CONTENT_URI, null);
+        cache.prefetch(CALENDARS, EventFields.ALL, 100, 200, null);
+
+        assertLoads(100, 200, 100, 200);
+    }
+
+    @Test
+    public void storesNothingWhenCancelled() {
+        cancelLoads = true;
+        try {
+            cache.prefetch(CALENDARS, EventFields.ALL, 100, 200, null);
+            fail("Prefetch wasn't cancelled");
+        } catch (OperationCanceledException e) {
+            // expected
+        }
+
+        cancelLoads = false;
+        cache.prefetch(CALENDARS, EventFields.ALL, 100, 200, null);
+        assertLoads(100, 200);
+    }
+
+    @Test
+    public void peeksNothingUntilCovered() {
+        assertNull(cache.peek(CALENDARS, EventFields.ALL, 100, 200));
+
+        cache.prefetch(CALENDARS, EventFields.ALL, 100, 150, null);
+        assertNull(cache.peek(CALENDARS, EventFields.ALL, 100, 200));
+        assertNull(cache.peek(CALENDARS, EventFields.ALL, 100, 100));
+        assertLoads(100, 150);
+    }
+
+    private void assertLoads(long... bounds) {
+        assertEquals(bounds.length / 2, loads.size());
+        for (int i = 0; i < loads.size(); i++) {
+            assertEquals("start of load " + i, bounds[2 * i], loads.get(i)[0]);
+            assertEquals("end of load " + i, bounds[2 * i + 1], loads.get(i)[1]);
+        }
+    }
+}
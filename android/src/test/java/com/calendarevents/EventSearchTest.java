@@ -0,0 +1,114 @@
+package com.calendarevents;
+
+import android.database.MatrixCursor;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.provider.CalendarContract;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, manifest = Config.NONE)
+public class EventSearchTest {
+
+    private final String[] columns = {
+            CalendarContract.Instances.BEGIN,
+            CalendarContract.Events.TITLE,
+            CalendarContract.Events.EVENT_LOCATION,
+            CalendarContract.Events.DESCRIPTION
+    };
+
+    @Test
+    public void hasNoTokensForBlankQuery() {
+        EventSearch search = new EventSearch("  \t ");
+
+        assertTrue(search.isEmpty());
+        assertEquals(0, search.tokenCount());
+        assertEquals("", search.clause());
+        assertEquals(0, search.args().length);
+    }
+
+    @Test
+    public void splitsLowerCasesAndDeduplicatesWords() {
+        EventSearch search = new EventSearch(" Team  SYNC team ");
+
+        assertFalse(search.isEmpty());
+        assertEquals(2, search.tokenCount());
+        assertArrayEquals(new String[] {"%team%", "%team%", "%team%", "%sync%", "%sync%", "%sync%"}, search.args());
+    }
+
+    @Test
+    public void capsTheNumberOfWords() {
+        assertEquals(EventSearch.MAX_TOKENS, new EventSearch("a b c d e f g h i j").tokenCount());
+    }
+
+    @Test
+    public void matchesEveryWordInAnyTextColumn() {
+        String word = "(title LIKE ? ESCAPE '\\' OR eventLocation LIKE ? ESCAPE '\\' OR description LIKE ? ESCAPE '\\')";
+
+        assertEquals(word + " AND " + word, new EventSearch("a b").clause());
+    }
+
+    @Test
+    public void escapesLikeWildcards() {
+        assertArrayEquals(new String[] {"%50\\%\\_off\\\\%", "%50\\%\\_off\\\\%", "%50\\%\\_off\\\\%"},
+                new EventSearch("50%_off\\").args());
+    }
+
+    @Test
+    public void addsTextColumnsOnce() {
+        assertArrayEquals(new String[] {"_id", "title", "eventLocation", "description"},
+                EventSearch.withTextColumns(new String[] {"_id", "title"}));
+    }
+
+    @Test
+    public void ranksNothingForEmptyCursor() {
+        assertEquals(0, new EventSearch("team").rank(new MatrixCursor(columns), 10, null).length);
+    }
+
+    @Test
+    public void ranksTitleMatchesFirst() {
+        MatrixCursor cursor = new MatrixCursor(columns);
+        cursor.addRow(new Object[] {1L, "Lunch", null, "with the team"});
+        cursor.addRow(new Object[] {2L, "Offsite", "Team room", null});
+        cursor.addRow(new Object[] {3L, "Weekly team sync", null, null});
+        cursor.addRow(new Object[] {4L, "Team sync", null, null});
+        cursor.addRow(new Object[] {5L, "Dentist", null, null});
+
+        EventSearch search = new EventSearch("team");
+        // title prefix, title, location, description, then the non-matching row
+        assertArrayEquals(new int[] {3, 2, 1, 0, 4}, search.rank(cursor, 10, null));
+        assertArrayEquals(new int[] {3, 2}, search.rank(cursor, 2, null));
+    }
+
+    @Test
+    public void keepsBeginOrderForEqualScores() {
+        MatrixCursor cursor = new MatrixCursor(columns);
+        for (long begin = 0; begin < 600; begin++) {
+            cursor.addRow(new Object[] {begin, "Standup", null, null});
+        }
+
+        int[] positions = new EventSearch("standup").rank(cursor, 600, null);
+        for (int i = 0; i < positions.length; i++) {
+            assertEquals(i, positions[i]);
+        }
+    }
+
+    @Test(expected = OperationCanceledException.class)
+    public void stopsOnceCancelled() {
+        MatrixCursor cursor = new MatrixCursor(columns);
+        cursor.addRow(new Object[] {1L, "Standup", null, null});
+        CancellationSignal signal = new CancellationSignal();
+        signal.cancel();
+
+        new EventSearch("standup").rank(cursor, 10, signal);
+    }
+}
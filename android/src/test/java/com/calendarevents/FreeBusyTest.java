@@ -0,0 +1,101 @@
+package com.calendarevents;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class FreeBusyTest {
+
+    @Test
+    public void mergesNothingForEmptyInput() {
+        assertArrayEquals(new long[0], FreeBusy.merge(new long[0], new long[0], 0, 0, 1000, 0));
+    }
+
+    @Test
+    public void onlyReadsTheFirstCountIntervals() {
+        long[] starts = {10, 50};
+        long[] ends = {20, 60};
+
+        assertArrayEquals(new long[] {10, 20}, FreeBusy.merge(starts, ends, 1, 0, 1000, 0));
+    }
+
+    @Test
+    public void keepsDisjointIntervals() {
+        long[] starts = {50, 10};
+        long[] ends = {60, 20};
+
+        assertArrayEquals(new long[] {10, 20, 50, 60}, FreeBusy.merge(starts, ends, 2, 0, 1000, 0));
+    }
+
+    @Test
+    public void mergesOverlappingIntervals() {
+        long[] starts = {10, 15, 40, 12};
+        long[] ends = {20, 30, 50, 18};
+
+        assertArrayEquals(new long[] {10, 30, 40, 50}, FreeBusy.merge(starts, ends, 4, 0, 1000, 0));
+    }
+
+    @Test
+    public void mergesTouchingIntervals() {
+        long[] starts = {10, 20};
+        long[] ends = {20, 30};
+
+        assertArrayEquals(new long[] {10, 30}, FreeBusy.merge(starts, ends, 2, 0, 1000, 0));
+    }
+
+    @Test
+    public void clipsToTheRange() {
+        long[] starts = {-50, 90, 200, 10};
+        long[] ends = {10, 150, 300, 10};
+
+        // the interval past the range and the empty one are dropped
+        assertArrayEquals(new long[] {0, 10, 90, 100}, FreeBusy.merge(starts, ends, 4, 0, 100, 0));
+    }
+
+    @Test
+    public void widensToTheGranularity() {
+        long[] starts = {7, 31, -3};
+        long[] ends = {12, 33, -1};
+
+        assertArrayEquals(new long[] {-10, 20, 30, 40}, FreeBusy.merge(starts, ends, 3, -100, 100, 10));
+    }
+
+    @Test
+    public void matchesBruteForceUnion() {
+        Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            int count = random.nextInt(20);
+            long[] starts = new long[count];
+            long[] ends = new long[count];
+            boolean[] busy = new boolean[100];
+
+            for (int i = 0; i < count; i++) {
+                starts[i] = random.nextInt(120) - 10;
+                ends[i] = starts[i] + random.nextInt(20);
+                for (long t = Math.max(starts[i], 0); t < Math.min(ends[i], 100); t++) {
+                    busy[(int) t] = true;
+                }
+            }
+
+            assertArrayEquals(union(busy), FreeBusy.merge(starts, ends, count, 0, 100, 0));
+        }
+    }
+
+    private static long[] union(boolean[] busy) {
+        long[] union = new long[busy.length + 1];
+        int length = 0;
+        for (int t = 0; t < busy.length; t++) {
+            if (busy[t] && (t == 0 || !busy[t - 1])) {
+                union[length++] = t;
+            }
+            if (busy[t] && (t == busy.length - 1 || !busy[t + 1])) {
+                union[length++] = t + 1;
+            }
+        }
+        long[] result = new long[length];
+        System.arraycopy(union, 0, result, 0, length);
+        return result;
+    }
+}
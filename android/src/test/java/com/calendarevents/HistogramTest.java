@@ -0,0 +1,142 @@
+package com.calendarevents;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+
+    @Test
+    public void mapsSmallValuesToTheirOwnBucket() {
+        for (int value = 0; value < 4; value++) {
+            assertEquals(value, Histogram.bucketOf(value));
+            assertEquals(value, Histogram.lowerBound(value));
+        }
+    }
+
+    @Test
+    public void splitsPowersOfTwoInFourBuckets() {
+        assertEquals(4, Histogram.bucketOf(4));
+        assertEquals(7, Histogram.bucketOf(7));
+        assertEquals(8, Histogram.bucketOf(8));
+        assertEquals(8, Histogram.bucketOf(9));
+        assertEquals(9, Histogram.bucketOf(10));
+        assertEquals(11, Histogram.bucketOf(15));
+        assertEquals(12, Histogram.bucketOf(16));
+        assertEquals(247, Histogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void boundsEveryBucket() {
+        long previous = -1;
+        for (int bucket = 0; bucket < 248; bucket++) {
+            long lowerBound = Histogram.lowerBound(bucket);
+            assertTrue(lowerBound > previous);
+            assertEquals(bucket, Histogram.bucketOf(lowerBound));
+            assertEquals(bucket - 1 < 0 ? 0 : bucket - 1, Histogram.bucketOf(Math.max(0, lowerBound - 1)));
+            previous = lowerBound;
+        }
+    }
+
+    @Test
+    public void snapshotsNothingWhenEmpty() {
+        Histogram.Snapshot snapshot = new Histogram().snapshot(false);
+
+        assertEquals(0, snapshot.count);
+        assertEquals(0, snapshot.sum);
+        assertEquals(0, snapshot.min);
+        assertEquals(0, snapshot.max);
+        assertEquals(0, snapshot.mean(), 0);
+        assertEquals(0, snapshot.percentile(0.5));
+    }
+
+    @Test
+    public void recordsStatistics() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        // negative durations, e.g. from a clock change, are read as 0
+        histogram.record(-5);
+
+        Histogram.Snapshot snapshot = histogram.snapshot(false);
+        assertEquals(101, snapshot.count);
+        assertEquals(5050, snapshot.sum);
+        assertEquals(0, snapshot.min);
+        assertEquals(100, snapshot.max);
+        assertEquals(50, snapshot.mean(), 0.001);
+    }
+
+    @Test
+    public void keepsPercentilesWithinTheBucketError() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+
+        Histogram.Snapshot snapshot = histogram.snapshot(false);
+        assertEquals(1, snapshot.percentile(0));
+        assertWithin(1000, snapshot.percentile(1));
+        assertWithin(500, snapshot.percentile(0.5));
+        assertWithin(900, snapshot.percentile(0.9));
+        assertWithin(990, snapshot.percentile(0.99));
+    }
+
+    @Test
+    public void clampsPercentilesToMinAndMax() {
+        Histogram histogram = new Histogram();
+        histogram.record(1000);
+        histogram.record(1001);
+
+        Histogram.Snapshot snapshot = histogram.snapshot(false);
+        // both values share a bucket whose lower bound is 896
+        assertEquals(1000, snapshot.percentile(0.5));
+        assertEquals(1000, snapshot.percentile(1));
+    }
+
+    @Test
+    public void resetsOnSnapshot() {
+        Histogram histogram = new Histogram();
+        histogram.record(10);
+
+        assertEquals(1, histogram.snapshot(true).count);
+        Histogram.Snapshot snapshot = histogram.snapshot(true);
+        assertEquals(0, snapshot.count);
+        assertEquals(0, snapshot.max);
+        assertEquals(0, snapshot.percentile(0.99));
+
+        histogram.record(3);
+        assertEquals(3, histogram.snapshot(false).min);
+    }
+
+    @Test
+    public void recordsConcurrently() throws InterruptedException {
+        final Histogram histogram = new Histogram();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int value = 0; value < 10000; value++) {
+                        histogram.record(value);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Histogram.Snapshot snapshot = histogram.snapshot(false);
+        assertEquals(40000, snapshot.count);
+        assertEquals(4L * 9999 * 10000 / 2, snapshot.sum);
+        assertEquals(0, snapshot.min);
+        assertEquals(9999, snapshot.max);
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual + " isn't within 25% of " + expected, actual <= expected && actual >= expected * 3 / 4);
+    }
+}
@@ -0,0 +1,62 @@
+package com.calendarevents;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RNCalendarEventsTest {
+
+    @Test
+    public void chunksNothingForEmptyInput() {
+        assertTrue(RNCalendarEvents.chunkSelectionArgs(Collections.<String>emptyList()).isEmpty());
+    }
+
+    @Test
+    public void keepsFiveHundredIdsInOneChunk() {
+        List<String[]> chunks = RNCalendarEvents.chunkSelectionArgs(ids(500));
+
+        assertEquals(1, chunks.size());
+        assertEquals(500, chunks.get(0).length);
+    }
+
+    @Test
+    public void splitsOverFiveHundredIds() {
+        List<String> ids = ids(1234);
+        List<String[]> chunks = RNCalendarEvents.chunkSelectionArgs(ids);
+
+        assertEquals(3, chunks.size());
+        assertEquals(500, chunks.get(0).length);
+        assertEquals(500, chunks.get(1).length);
+        assertEquals(234, chunks.get(2).length);
+
+        // every ID is kept once, in order
+        ArrayList<String> flattened = new ArrayList<>();
+        for (String[] chunk : chunks) {
+            flattened.addAll(Arrays.asList(chunk));
+        }
+        assertEquals(ids, flattened);
+    }
+
+    @Test
+    public void skipsNullIds() {
+        List<String[]> chunks = RNCalendarEvents.chunkSelectionArgs(Arrays.asList("1", null, "2", null));
+
+        assertEquals(1, chunks.size());
+        assertArrayEquals(new String[] {"1", "2"}, chunks.get(0));
+    }
+
+    private static List<String> ids(int count) {
+        ArrayList<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(Integer.toString(i + 1));
+        }
+        return ids;
+    }
+}
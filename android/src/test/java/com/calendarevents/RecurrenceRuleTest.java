@@ -0,0 +1,74 @@
+package com.calendarevents;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class RecurrenceRuleTest {
+
+    @Test
+    public void parsesExposedParts() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;INTERVAL=2;COUNT=10;BYDAY=MO,WE,FR;WKST=SU");
+
+        assertEquals("weekly", rule.frequency);
+        assertEquals(Integer.valueOf(2), rule.interval);
+        assertEquals(Integer.valueOf(10), rule.occurrence);
+        assertEquals(Arrays.asList("mo", "we", "fr"), rule.daysOfWeek);
+        assertNull(rule.getEndDate(DateFormatter.UTC));
+    }
+
+    @Test
+    public void parsesEmptyRule() {
+        RecurrenceRule rule = RecurrenceRule.parse("");
+
+        assertNull(rule.frequency);
+        assertNull(rule.interval);
+        assertNull(rule.occurrence);
+        assertNull(rule.daysOfWeek);
+        assertNull(rule.getEndDate(DateFormatter.UTC));
+    }
+
+    @Test
+    public void ignoresKeyCaseAndTrailingSeparator() {
+        RecurrenceRule rule = RecurrenceRule.parse("freq=Daily;count=3;");
+
+        assertEquals("daily", rule.frequency);
+        assertEquals(Integer.valueOf(3), rule.occurrence);
+    }
+
+    @Test
+    public void skipsMalformedValues() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY;INTERVAL=;COUNT=-;UNTIL=never;BYDAY;X=1=2");
+
+        assertEquals("monthly", rule.frequency);
+        assertNull(rule.interval);
+        assertNull(rule.occurrence);
+        assertNull(rule.daysOfWeek);
+        assertNull(rule.getEndDate(DateFormatter.UTC));
+    }
+
+    @Test
+    public void keepsNegativeNumbers() {
+        assertEquals(Integer.valueOf(-1), RecurrenceRule.parse("INTERVAL=-1").interval);
+    }
+
+    @Test
+    public void appliesZoneToUntil() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY;UNTIL=20200715T120000Z");
+
+        assertEquals("2020-07-15T12:00:00.000Z", rule.getEndDate(DateFormatter.UTC));
+        assertEquals("2020-07-15T10:00:00.000Z", rule.getEndDate(TimeZone.getTimeZone("Europe/Paris")));
+    }
+
+    @Test
+    public void cachesParsedRules() {
+        String rrule = "FREQ=YEARLY;COUNT=" + System.nanoTime();
+
+        assertSame(RecurrenceRule.get(rrule), RecurrenceRule.get(new String(rrule)));
+    }
+}
@@ -0,0 +1,60 @@
+package com.calendarevents;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class SelectionBuilderTest {
+
+    @Test
+    public void buildsClauseOnly() {
+        SelectionBuilder builder = new SelectionBuilder("dtstart < ?", null);
+
+        assertEquals("((dtstart < ?))", builder.build(0));
+        // builders without an IN column ignore the count
+        assertEquals("((dtstart < ?))", builder.build(3));
+    }
+
+    @Test
+    public void leavesOutEmptyInClause() {
+        assertEquals("((dtstart < ?))", new SelectionBuilder("dtstart < ?", "calendar_id").build(0));
+        assertEquals("()", SelectionBuilder.in("_id").build(0));
+    }
+
+    @Test
+    public void buildsInClause() {
+        assertEquals("((dtstart < ?) AND (calendar_id IN (?,?,?)))", new SelectionBuilder("dtstart < ?", "calendar_id").build(3));
+        assertEquals("((_id IN (?)))", SelectionBuilder.in("_id").build(1));
+    }
+
+    @Test
+    public void buildsInClauseOverFiveHundredValues() {
+        String selection = SelectionBuilder.in("event_id").build(1200);
+
+        int placeholders = 0;
+        for (int i = 0; i < selection.length(); i++) {
+            if (selection.charAt(i) == '?') {
+                placeholders++;
+            }
+        }
+        assertEquals(1200, placeholders);
+        assertEquals("((event_id IN (?,?", selection.substring(0, 18));
+        assertEquals(",?)))", selection.substring(selection.length() - 5));
+    }
+
+    @Test
+    public void cachesTemplatesAndBuilders() {
+        SelectionBuilder builder = SelectionBuilder.in("calendar_id");
+
+        assertSame(builder, SelectionBuilder.in("calendar_id"));
+        assertSame(builder.build(42), builder.build(42));
+    }
+
+    @Test
+    public void concatenatesArgs() {
+        assertArrayEquals(new String[] {"1", "2", "a"}, SelectionBuilder.args(new String[] {"1", "2"}, new String[] {"a"}));
+        assertArrayEquals(new String[0], SelectionBuilder.args(new String[0], new String[0]));
+    }
+}
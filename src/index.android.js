@@ -1,7 +1,21 @@
-import { NativeModules, processColor } from "react-native";
+import { DeviceEventEmitter, NativeModules, processColor } from "react-native";
 
 const RNCalendarEvents = NativeModules.RNCalendarEvents;
 
+let streamCount = 0;
+let changeListenerCount = 0;
+let observingChanges = false;
+let metricsListenerCount = 0;
+let snapshotCount = 0;
+
+function toIntervals(bounds) {
+  const intervals = [];
+  for (let i = 0; i < bounds.length; i += 2) {
+    intervals.push([bounds[i], bounds[i + 1]]);
+  }
+  return intervals;
+}
+
 export default {
   async checkPermissions(readOnly = false) {
     return RNCalendarEvents.checkPermissions(readOnly);
@@ -10,8 +24,154 @@ export default {
     return RNCalendarEvents.requestPermissions(readOnly);
   },
 
-  async fetchAllEvents(startDate, endDate, calendars = [], isLite = false) {
-    return RNCalendarEvents.findAllEvents(startDate, endDate, calendars, isLite);
+  async fetchAllEvents(
+    startDate,
+    endDate,
+    calendars = [],
+    isLite = false,
+    options = {}
+  ) {
+    const { snapshot, onRefresh, ...nativeOptions } = options;
+    if (!snapshot) {
+      return RNCalendarEvents.findAllEvents(
+        startDate,
+        endDate,
+        calendars,
+        isLite,
+        nativeOptions
+      );
+    }
+
+    if (nativeOptions.compact || nativeOptions.requestId || nativeOptions.prefetch) {
+      throw new Error(
+        "fetchAllEvents: snapshot can't be combined with compact, requestId or prefetch"
+      );
+    }
+
+    const handle = `snapshot-${++snapshotCount}`;
+    let listening = true;
+    const subscription = DeviceEventEmitter.addListener(
+      "RNCalendarEventsSnapshotRefresh",
+      (refresh) => {
+        if (refresh.handle === handle && listening) {
+          listening = false;
+          subscription.remove();
+          if (onRefresh) {
+            onRefresh(refresh);
+          }
+        }
+      }
+    );
+    const stopListening = () => {
+      if (listening) {
+        listening = false;
+        subscription.remove();
+      }
+    };
+
+    try {
+      const result = await RNCalendarEvents.findAllEvents(
+        startDate,
+        endDate,
+        calendars,
+        isLite,
+        { ...nativeOptions, snapshotHandle: handle }
+      );
+      if (!result.stale) {
+        stopListening();
+      }
+      return result;
+    } catch (error) {
+      stopListening();
+      throw error;
+    }
+  },
+
+  fetchAllEventsStreamed(
+    startDate,
+    endDate,
+    calendars = [],
+    isLite = false,
+    { pageSize = 100, onPage } = {}
+  ) {
+    const handle = `stream-${++streamCount}`;
+    const subscription = DeviceEventEmitter.addListener(
+      "RNCalendarEventsStreamPage",
+      (page) => {
+        if (page.handle === handle && onPage) {
+          onPage(page.events, page.page);
+        }
+      }
+    );
+
+    const promise = RNCalendarEvents.findAllEventsStreamed(
+      handle,
+      startDate,
+      endDate,
+      calendars,
+      isLite,
+      pageSize
+    ).then(
+      (result) => {
+        subscription.remove();
+        return result;
+      },
+      (error) => {
+        subscription.remove();
+        throw error;
+      }
+    );
+
+    return {
+      promise,
+      cancel() {
+        RNCalendarEvents.cancelEventsStream(handle);
+      },
+    };
+  },
+
+  async searchEvents(query, startDate, endDate, calendars = [], options = {}) {
+    return RNCalendarEvents.searchEvents(
+      query,
+      startDate,
+      endDate,
+      calendars,
+      options
+    );
+  },
+
+  async getFreeBusy(startDate, endDate, calendars = [], granularity = 0) {
+    const { busy, tentative } = await RNCalendarEvents.getFreeBusy(
+      startDate,
+      endDate,
+      calendars,
+      granularity
+    );
+    return { busy: toIntervals(busy), tentative: toIntervals(tentative) };
+  },
+
+  cancel(requestId) {
+    RNCalendarEvents.cancel(requestId);
+  },
+
+  getCachedCalendars() {
+    return RNCalendarEvents.getCachedCalendarsSync();
+  },
+
+  getCachedEvents(
+    startDate,
+    endDate,
+    calendars = [],
+    isLite = false,
+    options = {}
+  ) {
+    return RNCalendarEvents.getCachedEventsSync(
+      startDate,
+      endDate,
+      calendars,
+      isLite,
+      options
+    );
   },
 
   async findCalendars() {
@@ -29,18 +189,109 @@ export default {
     return RNCalendarEvents.removeCalendar(id);
   },
 
-  async findEventById(id) {
-    return RNCalendarEvents.findById(id);
+  async findEventById(id, options = {}) {
+    return RNCalendarEvents.findById(id, options);
   },
 
   async saveEvent(title, details, options = { sync: false }) {
     return RNCalendarEvents.saveEvent(title, details, options);
   },
 
+  async saveEvents(events, options = {}) {
+    return RNCalendarEvents.saveEvents(events, options);
+  },
+
   async removeEvent(id, options = { sync: false }) {
     return RNCalendarEvents.removeEvent(id, options);
   },
 
+  async removeEvents(ids, options = { sync: false }) {
+    return RNCalendarEvents.removeEvents(ids, options);
+  },
+
+  async exportEvents(startDate, endDate, calendars = [], path) {
+    return RNCalendarEvents.exportEvents(startDate, endDate, calendars, path);
+  },
+
+  async importEvents(path, options = {}) {
+    return RNCalendarEvents.importEvents(path, options);
+  },
+
+  onEventsChanged(listener, { debounceMs = 500 } = {}) {
+    const subscription = DeviceEventEmitter.addListener(
+      "RNCalendarEventsChanged",
+      listener
+    );
+    changeListenerCount++;
+    // the subscriber starting the observation sets the debounce, later ones share it
+    if (!observingChanges) {
+      observingChanges = true;
+      RNCalendarEvents.startObservingChanges(debounceMs).catch((error) => {
+        // the next subscriber tries again
+        observingChanges = false;
+        DeviceEventEmitter.emit("RNCalendarEventsChanged", {
+          token: "",
+          previousToken: "",
+          added: [],
+          updated: [],
+          removed: [],
+          error: error.message,
+        });
+      });
+    }
+
+    let removed = false;
+    return {
+      remove() {
+        if (removed) {
+          return;
+        }
+        removed = true;
+        subscription.remove();
+        if (--changeListenerCount === 0 && observingChanges) {
+          observingChanges = false;
+          RNCalendarEvents.stopObservingChanges();
+        }
+      },
+    };
+  },
+
+  async clearEventsSnapshots() {
+    return RNCalendarEvents.clearEventsSnapshots();
+  },
+
+  setMetricsEnabled(enabled) {
+    RNCalendarEvents.setMetricsEnabled(enabled);
+  },
+
+  async getMetrics({ reset = false } = {}) {
+    return RNCalendarEvents.getMetrics(reset);
+  },
+
+  onMetrics(listener, { intervalMs = 60000 } = {}) {
+    const subscription = DeviceEventEmitter.addListener(
+      "RNCalendarEventsMetrics",
+      listener
+    );
+    if (metricsListenerCount++ === 0) {
+      RNCalendarEvents.startMetricsReports(intervalMs);
+    }
+
+    let removed = false;
+    return {
+      remove() {
+        if (removed) {
+          return;
+        }
+        removed = true;
+        subscription.remove();
+        if (--metricsListenerCount === 0) {
+          RNCalendarEvents.stopMetricsReports();
+        }
+      },
+    };
+  },
+
   async uriForCalendar() {
     return RNCalendarEvents.uriForCalendar();
   },
@@ -166,6 +166,194 @@ export type CalendarAccountSourceAndroid =
       isLocalAccount: boolean;
     };
 
+export interface FindOptions {
+  /** ANDROID ONLY: Event keys to fetch, e.g. ["title", "startDate", "endDate"]. The id is always included. Defaults to every key. */
+  fields?: string[];
+  /** ANDROID ONLY, fetchAllEvents: Answer from the events already fetched for overlapping ranges. Defaults to true. */
+  cache?: boolean;
+  /**
+   * ANDROID ONLY, fetchAllEvents: Once resolved, load this many windows of the same length before and after
+   * the range into the cache, in the background. true is 1, at most 4. Defaults to 0.
+   */
+  prefetch?: boolean | number;
+  /** ANDROID ONLY, fetchAllEvents: Return CompactEvents columns. Bypasses the cache. Defaults to false. */
+  compact?: boolean;
+  /** ANDROID ONLY: Unique ID to pass to cancel() to abort this read. */
+  requestId?: string;
+  /**
+   * ANDROID ONLY, fetchAllEvents: Resolve with an EventsSnapshot, served from the events persisted by
+   * the previous snapshot fetch of the same calendars and fields when it covered the range. Defaults to false.
+   * Snapshot fetches reject compact, requestId and prefetch, and ignore cache.
+   */
+  snapshot?: boolean;
+  /** ANDROID ONLY, fetchAllEvents: Called once a stale snapshot was refreshed. */
+  onRefresh?: (refresh: SnapshotRefresh) => void;
+}
+
+export type SnapshotFindOptions = FindOptions & {
+  snapshot: true;
+  compact?: false;
+  requestId?: undefined;
+  prefetch?: false | 0;
+};
+
+export interface EventsSnapshot {
+  events: CalendarEventReadable[];
+  /** true when served from the persisted snapshot, onRefresh being called once reloaded. */
+  stale: boolean;
+  /** When the events were read from the calendar provider, in milliseconds. */
+  savedAt: number;
+}
+
+export interface SnapshotRefresh {
+  /** The reloaded events, absent when the reload failed. */
+  events?: CalendarEventReadable[];
+  savedAt?: number;
+  /** Ids of the events added, updated and removed since the snapshot. */
+  added?: string[];
+  updated?: string[];
+  removed?: string[];
+  /** Set when the reload failed. */
+  error?: string;
+}
+
+export interface SearchOptions {
+  /** Event keys to fetch. The id is always included. Defaults to every key. */
+  fields?: string[];
+  /** Maximum number of events returned. Defaults to 50. */
+  limit?: number;
+  /** "time" sorts by start date, "relevance" puts title matches first. Defaults to "time". */
+  orderBy?: "time" | "relevance";
+  /** Unique ID to pass to cancel() to abort the search. */
+  requestId?: string;
+}
+
+/**
+ * Events as parallel columns, the i-th entry of each column describing the i-th event.
+ * Only the columns of the requested fields are present. String columns hold indexes
+ * into `strings`, -1 standing for null.
+ */
+export interface CompactEvents {
+  count: number;
+  ids: string[];
+  /** Milliseconds since epoch. */
+  startDates?: number[];
+  endDates?: number[];
+  allDay?: boolean[];
+  calendarIds?: string[];
+  titles?: number[];
+  descriptions?: number[];
+  locations?: number[];
+  availabilities?: number[];
+  /** Recurrence frequencies. */
+  recurrences?: number[];
+  strings: string[];
+}
+
+export interface StreamOptions {
+  /** Number of events per emitted page. Defaults to 100. */
+  pageSize?: number;
+  /** Called with each page of events, in provider order. */
+  onPage?: (events: CalendarEventReadable[], page: number) => void;
+}
+
+export interface EventsStream {
+  /** Resolves once every page was emitted, or once the stream was cancelled. */
+  promise: Promise<{ count: number; cancelled: boolean }>;
+  /** Stops the stream before the next page is serialized. */
+  cancel(): void;
+}
+
+export interface BatchEvent {
+  title: string;
+  details: CalendarEventWritable;
+  options?: Options;
+}
+
+export interface BatchOptions {
+  /** Number of events saved per provider transaction. Defaults to 50. */
+  chunkSize?: number;
+}
+
+export interface BatchResult {
+  /** The saved event's ID, or null when it failed. */
+  id: string | null;
+  error?: string;
+}
+
+export interface ArchiveCounts {
+  events: number;
+  reminders: number;
+  attendees: number;
+}
+
+export interface ExportResult extends ArchiveCounts {
+  /** Size of the written archive. */
+  bytes: number;
+}
+
+export interface ImportOptions {
+  /** Calendar receiving every imported event, instead of the calendars they were exported from. */
+  calendarId?: string;
+  /** Number of events inserted per provider transaction. Defaults to 50. */
+  chunkSize?: number;
+}
+
+/** Start and end, in milliseconds since epoch. */
+export type Interval = [number, number];
+
+export interface FreeBusy {
+  /** Merged intervals of busy events, sorted. */
+  busy: Interval[];
+  /** Merged intervals of tentative events, sorted. */
+  tentative: Interval[];
+}
+
+export interface EventsChange {
+  /** Identifies this change, the next change's previousToken. */
+  token: string;
+  previousToken: string;
+  /** Ids of the added, updated and removed events. */
+  added: string[];
+  updated: string[];
+  removed: string[];
+  /** Set when observing couldn't start, e.g. without calendar permissions. The id arrays are then empty. */
+  error?: string;
+}
+
+export interface ChangeOptions {
+  /**
+   * Quiet period after the last provider notification before changes are computed. Defaults to 500ms.
+   * Set by the subscription that starts observing, later subscriptions share it.
+   */
+  debounceMs?: number;
+}
+
+export interface ChangeSubscription {
+  remove(): void;
+}
+
+export interface MetricsHistogram {
+  /** Number of recorded values, e.g. calls. */
+  count: number;
+  sum: number;
+  min: number;
+  max: number;
+  mean: number;
+  /** Percentiles, within 25% of the recorded values. */
+  p50: number;
+  p90: number;
+  p99: number;
+}
+
+/** Histograms by name: durations in microseconds, `rows.*` in rows. */
+export type Metrics = { [name: string]: MetricsHistogram };
+
+export interface MetricsOptions {
+  /** Period of the reports. Defaults to 60000ms, at least 1000ms. */
+  intervalMs?: number;
+}
+
 export default class ReactNativeCalendarEvents {
   /**
    * Get calendar authorization status.
@@ -194,7 +382,36 @@ export default class ReactNativeCalendarEvents {
    * Find calendar  by id.
    * @param id - Calendar ID
    */
-  static findEventById(id: string): Promise<CalendarEventReadable | null>;
+  static findEventById(
+    id: string,
+    options?: FindOptions
+  ): Promise<CalendarEventReadable | null>;
+  /**
+   * ANDROID ONLY: Fetch all calendar events, answering from the persisted snapshot first when possible.
+   * @param startDate - Date string in ISO format
+   * @param endDate - Date string in ISO format
+   * @param [calendarIds] - List of calendar id strings to specify calendar events. Defaults to all calendars if empty.
+   */
+  static fetchAllEvents(
+    startDate: ISODateString,
+    endDate: ISODateString,
+    calendarIds: string[],
+    isLite: boolean,
+    options: SnapshotFindOptions
+  ): Promise<EventsSnapshot>;
+  /**
+   * ANDROID ONLY: Fetch all calendar events as columns instead of one object per event.
+   * @param startDate - Date string in ISO format
+   * @param endDate - Date string in ISO format
+   * @param [calendarIds] - List of calendar id strings to specify calendar events. Defaults to all calendars if empty.
+   */
+  static fetchAllEvents(
+    startDate: ISODateString,
+    endDate: ISODateString,
+    calendarIds: string[],
+    isLite: boolean,
+    options: FindOptions & { compact: true }
+  ): Promise<CompactEvents>;
   /**
    * Fetch all calendar events.
    * @param startDate - Date string in ISO format
@@ -205,8 +422,77 @@ export default class ReactNativeCalendarEvents {
     startDate: ISODateString,
     endDate: ISODateString,
     calendarIds?: string[],
-    isLite?: boolean
+    isLite?: boolean,
+    options?: FindOptions
+  ): Promise<CalendarEventReadable[]>;
+  /**
+   * ANDROID ONLY: Deletes the events persisted by snapshot fetches.
+   */
+  static clearEventsSnapshots(): Promise<void>;
+  /**
+   * ANDROID ONLY - Fetch calendar events in pages instead of a single array.
+   * @param startDate - Date string in ISO format
+   * @param endDate - Date string in ISO format
+   * @param [calendarIds] - List of calendar id strings to specify calendar events. Defaults to all calendars if empty.
+   * @param [options] - Page size and page callback.
+   */
+  static fetchAllEventsStreamed(
+    startDate: ISODateString,
+    endDate: ISODateString,
+    calendarIds?: string[],
+    isLite?: boolean,
+    options?: StreamOptions
+  ): EventsStream;
+  /**
+   * ANDROID ONLY: Events of a range whose title, location or description contain every word of the query.
+   * @param query - Words to search for
+   * @param startDate - Date string in ISO format
+   * @param endDate - Date string in ISO format
+   * @param [calendarIds] - List of calendar id strings. Defaults to all calendars if empty.
+   * @param [options] - Fields, limit and order.
+   */
+  static searchEvents(
+    query: string,
+    startDate: ISODateString,
+    endDate: ISODateString,
+    calendarIds?: string[],
+    options?: SearchOptions
   ): Promise<CalendarEventReadable[]>;
+  /**
+   * ANDROID ONLY: Busy and tentative time within a range, events marked as free being ignored.
+   * @param startDate - Date string in ISO format
+   * @param endDate - Date string in ISO format
+   * @param [calendarIds] - List of calendar id strings. Defaults to all calendars if empty.
+   * @param [granularity] - Slot length in minutes intervals are widened to, 0 to keep exact bounds. Defaults to 0.
+   */
+  static getFreeBusy(
+    startDate: ISODateString,
+    endDate: ISODateString,
+    calendarIds?: string[],
+    granularity?: number
+  ): Promise<FreeBusy>;
+  /**
+   * ANDROID ONLY: Aborts the fetchAllEvents, findEventById or searchEvents call started with this requestId, rejecting it.
+   * @param requestId - The requestId given in the call options
+   */
+  static cancel(requestId: string): void;
+  /**
+   * ANDROID ONLY: Synchronously returns the calendars cached by findCalendars, or null when they aren't cached.
+   */
+  static getCachedCalendars(): Calendar[] | null;
+  /**
+   * ANDROID ONLY: Synchronously returns the events of a range fetched before, or null when any part of it isn't cached.
+   * @param startDate - Date string in ISO format
+   * @param endDate - Date string in ISO format
+   * @param [calendarIds] - List of calendar id strings, as passed to fetchAllEvents.
+   */
+  static getCachedEvents(
+    startDate: ISODateString,
+    endDate: ISODateString,
+    calendarIds?: string[],
+    isLite?: boolean,
+    options?: Pick<FindOptions, "fields">
+  ): CalendarEventReadable[] | null;
   /**
    * Creates or updates a calendar event. To update an event, the event id must be defined.
    * @param title - The title of the event
@@ -219,6 +505,16 @@ export default class ReactNativeCalendarEvents {
     details: CalendarEventWritable,
     options?: Options
   ): Promise<string>;
+  /**
+   * ANDROID ONLY: Creates or updates several calendar events in batched provider transactions.
+   * @param events - Events to save, each with its title, details and options
+   * @param [options] - Batch options
+   * @returns - Promise resolving to one result per event, in the same order.
+   */
+  static saveEvents(
+    events: BatchEvent[],
+    options?: BatchOptions
+  ): Promise<BatchResult[]>;
   /**
    * Removes calendar event.
    * @param id - The event id
@@ -226,4 +522,61 @@ export default class ReactNativeCalendarEvents {
    * @returns - Promise resolving to boolean to indicate if removal succeeded.
    */
   static removeEvent(id: string, options?: Options): Promise<boolean>;
+  /**
+   * ANDROID ONLY: Removes several calendar events at once.
+   * @param ids - The ids of the events to remove.
+   * @param [options] - Options applied to every removed event.
+   * @returns - Promise resolving to the number of removed events.
+   */
+  static removeEvents(ids: string[], options?: Options): Promise<number>;
+  /**
+   * ANDROID ONLY: Writes the events of a range, with their reminders and attendees, to a binary archive.
+   * @param startDate - Date string in ISO format
+   * @param endDate - Date string in ISO format
+   * @param calendarIds - List of calendar id strings. Defaults to all calendars if empty.
+   * @param path - Absolute path or file:// URI of the archive, replaced if it exists.
+   * @returns - Promise resolving to the archived row counts and the archive size.
+   */
+  static exportEvents(
+    startDate: ISODateString,
+    endDate: ISODateString,
+    calendarIds: string[],
+    path: string
+  ): Promise<ExportResult>;
+  /**
+   * ANDROID ONLY: Inserts the events of an archive written by exportEvents.
+   * @param path - Absolute path or file:// URI of the archive.
+   * @param [options] - Import options
+   * @returns - Promise resolving to the inserted row counts. Each chunk is inserted entirely or not at all, and on
+   * failure the error's `userInfo.importedIds` lists the events of the chunks that were inserted before.
+   */
+  static importEvents(path: string, options?: ImportOptions): Promise<ArchiveCounts>;
+  /**
+   * ANDROID ONLY: Calls the listener with the ids of the events changed on the device.
+   * @param listener - Called once per burst of changes.
+   * @param [options] - Change feed options.
+   * @returns - Subscription, remove it to stop observing.
+   */
+  static onEventsChanged(
+    listener: (change: EventsChange) => void,
+    options?: ChangeOptions
+  ): ChangeSubscription;
+  /**
+   * ANDROID ONLY: Turns the native metrics on or off. They are off by default.
+   */
+  static setMetricsEnabled(enabled: boolean): void;
+  /**
+   * ANDROID ONLY: Metrics recorded since they were enabled or last reset.
+   * @param [options] - `reset` clears them once read.
+   */
+  static getMetrics(options?: { reset?: boolean }): Promise<Metrics>;
+  /**
+   * ANDROID ONLY: Enables the metrics and reports them periodically, each report covering the previous period.
+   * @param listener - Called with the metrics of each period
+   * @param [options] - Report period.
+   */
+  static onMetrics(
+    listener: (metrics: Metrics) => void,
+    options?: MetricsOptions
+  ): ChangeSubscription;
 }